@@ -0,0 +1,70 @@
+package com.test.hero.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link CRLFLogConverter#transform}, which every log message of the console and file appenders goes
+ * through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CRLFLogConverterBenchmark {
+
+    /**
+     * The message: {@code plain} has no line breaks or tabs to replace, {@code crlf} has some.
+     */
+    @Param({ "plain", "crlf" })
+    public String message;
+
+    private CRLFLogConverter converter;
+
+    private LoggingEvent event;
+
+    private String formattedMessage;
+
+    @Setup
+    public void setUp() {
+        converter = new CRLFLogConverter();
+        converter.setOptionList(List.of("red"));
+        converter.start();
+
+        LoggerContext loggerContext = new LoggerContext();
+        formattedMessage =
+            "crlf".equals(message)
+                ? "Request to get SuperHero : 1\r\nwith\ta forged\nlog line"
+                : "Request to get SuperHero : 1 with a plain log line";
+        event =
+            new LoggingEvent(
+                CRLFLogConverterBenchmark.class.getName(),
+                loggerContext.getLogger("com.test.hero.web.rest.SuperHeroResource"),
+                Level.DEBUG,
+                formattedMessage,
+                null,
+                null
+            );
+    }
+
+    @Benchmark
+    public String transform() {
+        return converter.transform(event, formattedMessage);
+    }
+}
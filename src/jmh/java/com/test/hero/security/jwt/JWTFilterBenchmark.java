@@ -0,0 +1,71 @@
+package com.test.hero.security.jwt;
+
+import com.test.hero.security.AuthoritiesConstants;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Benchmark of {@link JWTFilter#doFilter}, which every API request goes through, with a valid bearer token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTFilterBenchmark {
+
+    private JWTFilter jwtFilter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    // Unlike MockFilterChain, can be called more than once
+    private final FilterChain filterChain = (servletRequest, servletResponse) -> {};
+
+    @Setup
+    public void setUp() {
+        TokenProvider tokenProvider = TokenProviderBenchmark.tokenProvider();
+        jwtFilter = new JWTFilter(tokenProvider);
+        String token = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(
+                "benchmark-user",
+                "benchmark-password",
+                List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+            ),
+            false
+        );
+        request = new MockHttpServletRequest("GET", "/api/super-heroes");
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilter() throws IOException, ServletException {
+        try {
+            jwtFilter.doFilter(request, response, filterChain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
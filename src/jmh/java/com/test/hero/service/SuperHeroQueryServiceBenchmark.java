@@ -0,0 +1,114 @@
+package com.test.hero.service;
+
+import com.test.hero.TestHeroApp;
+import com.test.hero.config.AsyncSyncConfiguration;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.service.criteria.SuperHeroCriteria;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.util.AopTestUtils;
+import tech.jhipster.service.filter.IntegerFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Benchmarks of {@link SuperHeroQueryService#createSpecification(SuperHeroCriteria)}, and of the rendering of the
+ * resulting criteria query by Hibernate, which every filtered superHero query goes through before reaching the
+ * database.
+ * <p>
+ * The application is started once per trial with the {@code testdev} profile, as by the integration tests, for the JPA
+ * metamodel the specifications are built on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuperHeroQueryServiceBenchmark {
+
+    /**
+     * The criteria: {@code name} filters on the name only, {@code all} on every field.
+     */
+    @Param({ "name", "all" })
+    public String criteria;
+
+    private ConfigurableApplicationContext context;
+
+    private SuperHeroQueryService superHeroQueryService;
+
+    private EntityManager entityManager;
+
+    private SuperHeroCriteria superHeroCriteria;
+
+    @Setup
+    public void setUp() {
+        // Liquibase is run synchronously, so that the schema is created before Hibernate validates it
+        context =
+            new SpringApplicationBuilder(TestHeroApp.class, AsyncSyncConfiguration.class)
+                .profiles("testdev")
+                .properties("server.port=0")
+                .run();
+        superHeroQueryService = AopTestUtils.getUltimateTargetObject(context.getBean(SuperHeroQueryService.class));
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+
+        superHeroCriteria = new SuperHeroCriteria();
+        StringFilter name = new StringFilter();
+        name.setContains("hero");
+        superHeroCriteria.setName(name);
+        if ("all".equals(criteria)) {
+            LongFilter id = new LongFilter();
+            id.setGreaterThan(0L);
+            superHeroCriteria.setId(id);
+            IntegerFilter age = new IntegerFilter();
+            age.setIn(List.of(20, 30, 40));
+            superHeroCriteria.setAge(age);
+            StringFilter superpower = new StringFilter();
+            superpower.setEquals("Flight");
+            superHeroCriteria.setSuperpower(superpower);
+            superHeroCriteria.setDistinct(true);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Specification<SuperHero> createSpecification() {
+        return superHeroQueryService.createSpecification(superHeroCriteria);
+    }
+
+    @Benchmark
+    public TypedQuery<SuperHero> createSpecificationAndRenderQuery() {
+        Specification<SuperHero> specification = superHeroQueryService.createSpecification(superHeroCriteria);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SuperHero> query = criteriaBuilder.createQuery(SuperHero.class);
+        Root<SuperHero> root = query.from(SuperHero.class);
+        query.where(specification.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,88 @@
+package com.test.hero.service.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.hero.security.AuthoritiesConstants;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the Jackson round trips, serialization then deserialization, of the {@link SuperHeroDTO} and
+ * {@link AdminUserDTO} bodies of the API, with the date and time settings of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonRoundTripBenchmark {
+
+    private ObjectWriter superHeroWriter;
+
+    private ObjectReader superHeroReader;
+
+    private ObjectWriter adminUserWriter;
+
+    private ObjectReader adminUserReader;
+
+    private SuperHeroDTO superHero;
+
+    private AdminUserDTO adminUser;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new Jdk8Module())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+        superHeroWriter = objectMapper.writerFor(SuperHeroDTO.class);
+        superHeroReader = objectMapper.readerFor(SuperHeroDTO.class);
+        adminUserWriter = objectMapper.writerFor(AdminUserDTO.class);
+        adminUserReader = objectMapper.readerFor(AdminUserDTO.class);
+
+        superHero = new SuperHeroDTO(1L, "Benchmark hero", 42, "Repetition", 1L);
+
+        adminUser = new AdminUserDTO();
+        adminUser.setId(1L);
+        adminUser.setLogin("benchmark-user");
+        adminUser.setFirstName("Benchmark");
+        adminUser.setLastName("User");
+        adminUser.setEmail("benchmark-user@localhost");
+        adminUser.setImageUrl("http://placehold.it/50x50");
+        adminUser.setActivated(true);
+        adminUser.setLangKey("en");
+        adminUser.setCreatedBy("system");
+        adminUser.setCreatedDate(Instant.parse("2026-01-01T00:00:00Z"));
+        adminUser.setLastModifiedBy("system");
+        adminUser.setLastModifiedDate(Instant.parse("2026-01-02T00:00:00Z"));
+        adminUser.setAuthorities(Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+    }
+
+    @Benchmark
+    public SuperHeroDTO superHeroRoundTrip() throws IOException {
+        return superHeroReader.readValue(superHeroWriter.writeValueAsBytes(superHero));
+    }
+
+    @Benchmark
+    public AdminUserDTO adminUserRoundTrip() throws IOException {
+        return adminUserReader.readValue(adminUserWriter.writeValueAsBytes(adminUser));
+    }
+}
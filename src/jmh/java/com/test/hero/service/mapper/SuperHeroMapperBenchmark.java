@@ -0,0 +1,54 @@
+package com.test.hero.service.mapper;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.service.dto.SuperHeroDTO;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the {@link SuperHeroMapper} conversions done by every superHero lookup and update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuperHeroMapperBenchmark {
+
+    private SuperHeroMapper superHeroMapper;
+
+    private SuperHero superHero;
+
+    private SuperHeroDTO patch;
+
+    @Setup
+    public void setUp() {
+        superHeroMapper = new SuperHeroMapperImpl();
+        superHero = new SuperHero().name("Benchmark hero").age(42).superpower("Repetition");
+        superHero.setId(1L);
+        superHero.setVersion(1L);
+        // Only the name and age are patched, the null fields are left as they are
+        patch = new SuperHeroDTO(1L, "Patched hero", 43, null, 1L);
+    }
+
+    @Benchmark
+    public SuperHeroDTO toDto() {
+        return superHeroMapper.toDto(superHero);
+    }
+
+    @Benchmark
+    public SuperHero partialUpdate() {
+        superHeroMapper.partialUpdate(superHero, patch);
+        return superHero;
+    }
+}
@@ -1,6 +1,12 @@
 package com.test.hero.config;
 
+import java.util.HashMap;
+import java.util.Map;
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
 
 /**
  * Properties specific to Test Hero.
@@ -9,8 +15,582 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
+@Validated
 public class ApplicationProperties {
+
+    private final Export export = new Export();
+
+    @Valid
+    private final Batch batch = new Batch();
+
+    private final Cache cache = new Cache();
+
+    private final WarmUp warmUp = new WarmUp();
+
+    private final RequestTiming requestTiming = new RequestTiming();
+
+    private final Sql sql = new Sql();
+
+    private final ServerTiming serverTiming = new ServerTiming();
+
     // jhipster-needle-application-properties-property
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public RequestTiming getRequestTiming() {
+        return requestTiming;
+    }
+
+    public Sql getSql() {
+        return sql;
+    }
+
+    public ServerTiming getServerTiming() {
+        return serverTiming;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Export {
+
+        /**
+         * Number of rows fetched from the database per round trip when streaming an export. The persistence context is
+         * also cleared every time this number of rows has been written.
+         */
+        private int fetchSize = 500;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class Batch {
+
+        /**
+         * Number of entities saved per transaction by the batch endpoints. Inside a transaction, the inserts are sent in
+         * JDBC batches of {@code hibernate.jdbc.batch_size} statements.
+         */
+        @Min(1)
+        private int chunkSize = 500;
+
+        /**
+         * Number of entities accepted by a request to the batch endpoints, past which it is rejected.
+         */
+        @Min(1)
+        private int maxSize = 10000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Tier sizes, time to live and serializer of the caches, by cache name. The caches which are not listed, and
+         * the settings which are not set, use the {@code jhipster.cache.ehcache} defaults and are kept on heap only.
+         */
+        private final Map<String, Region> regions = new HashMap<>();
+
+        /**
+         * Directory of the disk tiers of the caches.
+         */
+        private String diskDirectory = System.getProperty("java.io.tmpdir") + "/test-hero/cache";
+
+        /**
+         * Number of hottest keys reported per cache with refresh-ahead by the {@code cachestats} management endpoint.
+         */
+        private int hotKeys = 20;
+
+        private final RefreshAhead refreshAhead = new RefreshAhead();
+
+        private final Snapshot snapshot = new Snapshot();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        private final SuperHeroIds superHeroIds = new SuperHeroIds();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public int getHotKeys() {
+            return hotKeys;
+        }
+
+        public void setHotKeys(int hotKeys) {
+            this.hotKeys = hotKeys;
+        }
+
+        public RefreshAhead getRefreshAhead() {
+            return refreshAhead;
+        }
+
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public SuperHeroIds getSuperHeroIds() {
+            return superHeroIds;
+        }
+
+        public static class Region {
+
+            /**
+             * Number of entries kept on heap, as live objects.
+             */
+            private Long maxEntries;
+
+            /**
+             * Size of the off-heap tier, where entries are stored serialized, out of reach of the garbage collector.
+             * Must be larger than the heap tier.
+             */
+            private DataSize offHeap;
+
+            /**
+             * Size of the disk tier, in {@code application.cache.disk-directory}. Must be larger than the off-heap
+             * tier, if any.
+             */
+            private DataSize disk;
+
+            private Long timeToLiveSeconds;
+
+            /**
+             * Ehcache {@code Serializer} of the values in the off-heap and disk tiers, Java serialization by default.
+             */
+            private Class<?> serializer;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public DataSize getOffHeap() {
+                return offHeap;
+            }
+
+            public void setOffHeap(DataSize offHeap) {
+                this.offHeap = offHeap;
+            }
+
+            public DataSize getDisk() {
+                return disk;
+            }
+
+            public void setDisk(DataSize disk) {
+                this.disk = disk;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Class<?> getSerializer() {
+                return serializer;
+            }
+
+            public void setSerializer(Class<?> serializer) {
+                this.serializer = serializer;
+            }
+        }
+
+        public static class RefreshAhead {
+
+            /**
+             * Fraction of the time to live of an entry after which a lookup reloads it in the background, while it
+             * keeps being served.
+             */
+            private double refreshRatio = 0.8;
+
+            /**
+             * How long an entry is kept past its time to live, to be served stale while the database is slow or
+             * unreachable.
+             */
+            private long maxStaleSeconds = 300;
+
+            /**
+             * How long a lookup of an expired entry waits for its reload, before it is served the stale entry instead.
+             */
+            private long loadTimeoutMillis = 500;
+
+            public double getRefreshRatio() {
+                return refreshRatio;
+            }
+
+            public void setRefreshRatio(double refreshRatio) {
+                this.refreshRatio = refreshRatio;
+            }
+
+            public long getMaxStaleSeconds() {
+                return maxStaleSeconds;
+            }
+
+            public void setMaxStaleSeconds(long maxStaleSeconds) {
+                this.maxStaleSeconds = maxStaleSeconds;
+            }
+
+            public long getLoadTimeoutMillis() {
+                return loadTimeoutMillis;
+            }
+
+            public void setLoadTimeoutMillis(long loadTimeoutMillis) {
+                this.loadTimeoutMillis = loadTimeoutMillis;
+            }
+        }
+
+        public static class Snapshot {
+
+            /**
+             * Whether the caches with refresh-ahead are written to a snapshot on shutdown, and restored from it on
+             * startup, before the application accepts traffic.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Snapshot file, which must survive a restart, in a directory other users cannot write to. It is created
+             * readable by its owner only. Required when the snapshot is enabled.
+             */
+            private String path;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getPath() {
+                return path;
+            }
+
+            public void setPath(String path) {
+                this.path = path;
+            }
+        }
+
+        public static class Invalidation {
+
+            /**
+             * Whether the cache invalidations are recorded in the database, and polled by every node to evict the
+             * entries invalidated by the other nodes. Required when several nodes share the database. The bitmap of the
+             * superHero ids, which answers the lookups of absent superHeroes without a query, is only used when it is
+             * enabled: it only learns of the superHeroes inserted by the other nodes through the bus.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Delay between two polls of the cache invalidations, the time it takes for a write on a node to be seen
+             * by the caches of the others.
+             */
+            private long pollIntervalMillis = 1000;
+
+            /**
+             * How long the ids skipped by a poll, drawn by transactions not yet committed, are looked up again. Must be
+             * longer than the longest write transaction.
+             */
+            private long lookbackMillis = 60000;
+
+            /**
+             * Age after which the cache invalidations are deleted. A node which could not poll them for longer clears
+             * its caches.
+             */
+            private long retentionSeconds = 3600;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getPollIntervalMillis() {
+                return pollIntervalMillis;
+            }
+
+            public void setPollIntervalMillis(long pollIntervalMillis) {
+                this.pollIntervalMillis = pollIntervalMillis;
+            }
+
+            public long getLookbackMillis() {
+                return lookbackMillis;
+            }
+
+            public void setLookbackMillis(long lookbackMillis) {
+                this.lookbackMillis = lookbackMillis;
+            }
+
+            public long getRetentionSeconds() {
+                return retentionSeconds;
+            }
+
+            public void setRetentionSeconds(long retentionSeconds) {
+                this.retentionSeconds = retentionSeconds;
+            }
+        }
+
+        public static class SuperHeroIds {
+
+            /**
+             * Delay between two rebuilds of the bitmap of the superHero ids from the database, the time it takes for a
+             * row inserted outside of the Hibernate sessions of a node to be seen by it.
+             */
+            private long rebuildIntervalSeconds = 600;
+
+            public long getRebuildIntervalSeconds() {
+                return rebuildIntervalSeconds;
+            }
+
+            public void setRebuildIntervalSeconds(long rebuildIntervalSeconds) {
+                this.rebuildIntervalSeconds = rebuildIntervalSeconds;
+            }
+        }
+    }
+
+    public static class WarmUp {
+
+        /**
+         * Whether the application warms up its caches, connection pool and request handling once started, before its
+         * readiness state accepts traffic.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of superHeroes preloaded in the cache.
+         */
+        private int superHeroes = 1000;
+
+        /**
+         * Number of activated users preloaded in the cache, the most recently modified first.
+         */
+        private int users = 100;
+
+        /**
+         * Number of synthetic requests replayed against the application, for the JIT compiler to compile their path.
+         */
+        private int requests = 2000;
+
+        /**
+         * Timeout of the connection of the synthetic requests to the application.
+         */
+        private long connectTimeoutMillis = 1000;
+
+        /**
+         * Timeout of each synthetic request.
+         */
+        private long requestTimeoutMillis = 5000;
+
+        /**
+         * Time after which the remaining synthetic requests are given up, for the application to accept traffic.
+         */
+        private long timeoutSeconds = 60;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSuperHeroes() {
+            return superHeroes;
+        }
+
+        public void setSuperHeroes(int superHeroes) {
+            this.superHeroes = superHeroes;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public void setRequests(int requests) {
+            this.requests = requests;
+        }
+
+        public long getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+
+        public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public long getRequestTimeoutMillis() {
+            return requestTimeoutMillis;
+        }
+
+        public void setRequestTimeoutMillis(long requestTimeoutMillis) {
+            this.requestTimeoutMillis = requestTimeoutMillis;
+        }
+
+        public long getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(long timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+    }
+
+    public static class RequestTiming {
+
+        /**
+         * Time above which the requests timed by {@code @RequestTiming} are logged as slow, unless the annotation sets
+         * its own threshold.
+         */
+        private long slowThresholdMillis = 1000;
+
+        /**
+         * Fraction of the slow requests which are logged, between 0 and 1.
+         */
+        private double slowLogSampleRate = 0.1;
+
+        public long getSlowThresholdMillis() {
+            return slowThresholdMillis;
+        }
+
+        public void setSlowThresholdMillis(long slowThresholdMillis) {
+            this.slowThresholdMillis = slowThresholdMillis;
+        }
+
+        public double getSlowLogSampleRate() {
+            return slowLogSampleRate;
+        }
+
+        public void setSlowLogSampleRate(double slowLogSampleRate) {
+            this.slowLogSampleRate = slowLogSampleRate;
+        }
+    }
+
+    public static class Sql {
+
+        /**
+         * Whether the SQL statements executed by each request are counted, and exported as metrics by endpoint.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of statements per request above which a warning is logged, for the endpoints without a budget of
+         * their own.
+         */
+        private int statementBudget = 20;
+
+        /**
+         * Number of statements per request above which a warning is logged, by endpoint, as
+         * {@code GET /api/super-heroes/{id}}.
+         */
+        private final Map<String, Integer> statementBudgets = new HashMap<>();
+
+        /**
+         * Number of executions of the same statement by a request from which a warning of a possible N+1 select is
+         * logged.
+         */
+        private int repeatedStatementThreshold = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getStatementBudget() {
+            return statementBudget;
+        }
+
+        public void setStatementBudget(int statementBudget) {
+            this.statementBudget = statementBudget;
+        }
+
+        public Map<String, Integer> getStatementBudgets() {
+            return statementBudgets;
+        }
+
+        public int getRepeatedStatementThreshold() {
+            return repeatedStatementThreshold;
+        }
+
+        public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+            this.repeatedStatementThreshold = repeatedStatementThreshold;
+        }
+    }
+
+    public static class ServerTiming {
+
+        /**
+         * Whether the API responses carry a {@code Server-Timing} header, with the time spent in the database, the
+         * caches, the mappers and Jackson.
+         */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
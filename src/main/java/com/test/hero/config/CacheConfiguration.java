@@ -1,15 +1,40 @@
 package com.test.hero.config;
 
+import com.test.hero.repository.UserRepository;
+import com.test.hero.service.HotKeySketch;
+import com.test.hero.service.RefreshAheadCache;
+import com.test.hero.service.RefreshAheadCacheResolver;
+import com.test.hero.service.SuperHeroCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.File;
+import java.io.Serializable;
 import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.spi.serialization.Serializer;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
+import org.springframework.util.unit.DataSize;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
@@ -17,39 +42,163 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    /**
+     * The caches whose entries are reloaded ahead of their expiry, and served stale while the database is slow or
+     * unreachable.
+     */
+    private static final List<String> REFRESH_AHEAD_CACHES = List.of(
+        SuperHeroCache.SUPER_HERO_CACHE,
+        UserRepository.USERS_BY_LOGIN_CACHE,
+        UserRepository.USERS_BY_EMAIL_CACHE
+    );
+
+    /**
+     * Number of counters per row of the hot key sketches, each taking 8 bytes.
+     */
+    private static final int HOT_KEY_SKETCH_WIDTH = 4096;
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
-
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    /**
+     * Same as the JCache manager of Spring Boot, with the persistence service of Ehcache when a cache has a disk tier.
+     * <p>
+     * The manager is identified by the disk directory of the caches, which it locks: the application contexts of a JVM
+     * with the same directory share their caches, and those acting as distinct nodes need distinct directories.
+     *
+     * @param customizers the customizers, which create the caches.
+     * @return the JCache manager.
+     */
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> customizers) {
+        EhcacheCachingProvider cachingProvider = (EhcacheCachingProvider) Caching.getCachingProvider(
+            EhcacheCachingProvider.class.getName()
+        );
+        ClassLoader classLoader = CacheConfiguration.class.getClassLoader();
+        boolean diskTier = cacheProperties.getRegions().values().stream().anyMatch(region -> region.getDisk() != null);
+        DefaultConfiguration configuration = diskTier
+            ? new DefaultConfiguration(classLoader, new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskDirectory())))
+            : new DefaultConfiguration(classLoader);
+        javax.cache.CacheManager cacheManager = cachingProvider.getCacheManager(
+            new File(cacheProperties.getDiskDirectory()).toURI(),
+            configuration
+        );
+        customizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
     }
 
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
-            createCache(cm, com.test.hero.repository.UserRepository.USERS_BY_LOGIN_CACHE);
-            createCache(cm, com.test.hero.repository.UserRepository.USERS_BY_EMAIL_CACHE);
-            createCache(cm, "superHero");
+            createCache(cm, com.test.hero.domain.User.class.getName());
+            createCache(cm, com.test.hero.domain.Authority.class.getName());
+            createCache(cm, com.test.hero.domain.User.class.getName() + ".authorities");
+            createCache(cm, com.test.hero.domain.SuperHero.class.getName());
+            createCache(cm, com.test.hero.repository.UserRepository.USERS_BY_LOGIN_CACHE, String.class, Serializable.class);
+            createCache(cm, com.test.hero.repository.UserRepository.USERS_BY_EMAIL_CACHE, String.class, Serializable.class);
+            createCache(cm, com.test.hero.service.SuperHeroCache.SUPER_HERO_CACHE, Long.class, Serializable.class);
+            createCache(cm, com.test.hero.service.SuperHeroQueryCache.SUPER_HEROES_BY_CRITERIA_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, Serializable.class, Serializable.class);
+    }
+
+    /**
+     * Create the cache with its key and value types, which must be serializable for the off-heap and disk tiers, or
+     * clear it if it already exists. Its statistics are enabled, and bound to the meter registry by Spring Boot as the
+     * {@code cache.gets}, {@code cache.puts}, {@code cache.evictions} and {@code cache.removals} meters.
+     */
+    private <K, V> void createCache(javax.cache.CacheManager cm, String cacheName, Class<K> keyType, Class<V> valueType) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName, keyType, valueType));
+        }
+        cm.enableStatistics(cacheName, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    <K, V> javax.cache.configuration.Configuration<K, V> jcacheConfiguration(String cacheName, Class<K> keyType, Class<V> valueType) {
+        Optional<ApplicationProperties.Cache.Region> region = Optional.ofNullable(cacheProperties.getRegions().get(cacheName));
+        long maxEntries = region.map(ApplicationProperties.Cache.Region::getMaxEntries).orElse(ehcache.getMaxEntries());
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(maxEntries);
+        Optional<DataSize> offHeap = region.map(ApplicationProperties.Cache.Region::getOffHeap);
+        if (offHeap.isPresent()) {
+            resourcePools = resourcePools.offheap(offHeap.get().toMegabytes(), MemoryUnit.MB);
+        }
+        Optional<DataSize> disk = region.map(ApplicationProperties.Cache.Region::getDisk);
+        if (disk.isPresent()) {
+            resourcePools = resourcePools.disk(disk.get().toMegabytes(), MemoryUnit.MB);
         }
+        Duration timeToLive = timeToLive(cacheName);
+        if (REFRESH_AHEAD_CACHES.contains(cacheName)) {
+            // Expired entries are kept to be served stale, RefreshAheadCache tells them apart
+            timeToLive = timeToLive.plus(maxStale());
+        }
+        CacheConfigurationBuilder<K, V> configuration = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(keyType, valueType, resourcePools)
+            .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive));
+        Optional<Class<?>> serializer = region.map(ApplicationProperties.Cache.Region::getSerializer);
+        if (serializer.isPresent()) {
+            configuration = configuration.withValueSerializer((Class<? extends Serializer<V>>) serializer.get());
+        }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(configuration.build());
+    }
+
+    private Duration timeToLive(String cacheName) {
+        return Duration.ofSeconds(
+            Optional
+                .ofNullable(cacheProperties.getRegions().get(cacheName))
+                .map(ApplicationProperties.Cache.Region::getTimeToLiveSeconds)
+                .orElse((long) ehcache.getTimeToLiveSeconds())
+        );
+    }
+
+    private Duration maxStale() {
+        return Duration.ofSeconds(cacheProperties.getRefreshAhead().getMaxStaleSeconds());
+    }
+
+    @Bean
+    public RefreshAheadCacheResolver refreshAheadCacheResolver(
+        CacheManager cacheManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.Cache.RefreshAhead refreshAhead = cacheProperties.getRefreshAhead();
+        return new RefreshAheadCacheResolver(
+            REFRESH_AHEAD_CACHES
+                .stream()
+                .map(cacheName -> {
+                    Duration timeToLive = timeToLive(cacheName);
+                    return new RefreshAheadCache(
+                        Objects.requireNonNull(cacheManager.getCache(cacheName)),
+                        Duration.ofMillis((long) (timeToLive.toMillis() * refreshAhead.getRefreshRatio())),
+                        timeToLive,
+                        maxStale(),
+                        Duration.ofMillis(refreshAhead.getLoadTimeoutMillis()),
+                        taskExecutor,
+                        meterRegistry,
+                        new HotKeySketch(cacheProperties.getHotKeys(), HOT_KEY_SKETCH_WIDTH)
+                    );
+                })
+                .collect(Collectors.toList())
+        );
     }
 
     @Autowired(required = false)
@@ -0,0 +1,159 @@
+package com.test.hero.config;
+
+import com.test.hero.service.RefreshAheadCache;
+import com.test.hero.service.RefreshAheadCacheResolver;
+import com.test.hero.service.SuperHeroCache;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint reporting, for each cache with refresh-ahead, the statistics needed to size it: its hit ratio,
+ * puts, evictions and removals, as counted by JCache, the latency of its loads, the number of stale entries served,
+ * and its hottest keys.
+ * <p>
+ * Only the keys of the caches listed in {@link #PLAIN_KEY_CACHES} are reported as they are. The keys of the other
+ * caches, such as the logins and emails of the user caches, are personal data: they are replaced by a keyed hash, with
+ * a secret drawn at startup, which tells the hot keys apart without revealing them.
+ * <p>
+ * JCache counts as hits the entries kept past their time to live to be served stale, which are then reloaded: those
+ * reloads show in the loads.
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatisticsEndpoint {
+
+    private static final Set<String> PLAIN_KEY_CACHES = Set.of(SuperHeroCache.SUPER_HERO_CACHE);
+
+    private static final String KEY_HASH_ALGORITHM = "HmacSHA256";
+
+    private static final int KEY_HASH_BYTES = 8;
+
+    private final RefreshAheadCacheResolver refreshAheadCacheResolver;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SecretKeySpec keyHashSecret;
+
+    public CacheStatisticsEndpoint(RefreshAheadCacheResolver refreshAheadCacheResolver, MeterRegistry meterRegistry) {
+        this.refreshAheadCacheResolver = refreshAheadCacheResolver;
+        this.meterRegistry = meterRegistry;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.keyHashSecret = new SecretKeySpec(secret, KEY_HASH_ALGORITHM);
+    }
+
+    /**
+     * @return the statistics of the caches with refresh-ahead, by cache name.
+     */
+    @ReadOperation
+    public Map<String, Map<String, Object>> cacheStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        for (RefreshAheadCache cache : refreshAheadCacheResolver.getCaches()) {
+            statistics.put(cache.getName(), statistics(cache));
+        }
+        return statistics;
+    }
+
+    private Map<String, Object> statistics(RefreshAheadCache cache) {
+        String cacheName = cache.getName();
+        long hits = count("cache.gets", cacheName, "result", "hit");
+        long misses = count("cache.gets", cacheName, "result", "miss");
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hits", hits);
+        statistics.put("misses", misses);
+        statistics.put("hitRatio", hits + misses == 0 ? null : (double) hits / (hits + misses));
+        statistics.put("puts", count("cache.puts", cacheName));
+        statistics.put("evictions", count("cache.evictions", cacheName));
+        statistics.put("removals", count("cache.removals", cacheName));
+        statistics.put("loads", loads(cacheName));
+        statistics.put("staleServed", count(RefreshAheadCache.METER_NAME, cacheName));
+        statistics.put("hotKeys", hotKeys(cache.hotKeys(), PLAIN_KEY_CACHES.contains(cacheName)));
+        return statistics;
+    }
+
+    private Map<String, Object> loads(String cacheName) {
+        Map<String, Object> loads = new LinkedHashMap<>();
+        Timer timer = meterRegistry
+            .find(RefreshAheadCache.LOAD_METER_NAME)
+            .tag(RefreshAheadCache.METER_CACHE_DIMENSION, cacheName)
+            .timer();
+        if (timer == null) {
+            return loads;
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        loads.put("count", snapshot.count());
+        loads.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+        loads.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            loads.put("p" + Math.round(percentile.percentile() * 100) + "Millis", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return loads;
+    }
+
+    private List<Map<String, Object>> hotKeys(List<Map.Entry<Object, Long>> hotKeys, boolean plainKeys) {
+        return hotKeys
+            .stream()
+            .map(hotKey -> {
+                String key = String.valueOf(hotKey.getKey());
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("key", plainKeys ? key : hash(key));
+                entry.put("lookups", hotKey.getValue());
+                return entry;
+            })
+            .collect(Collectors.toList());
+    }
+
+    private String hash(String key) {
+        try {
+            Mac mac = Mac.getInstance(KEY_HASH_ALGORITHM);
+            mac.init(keyHashSecret);
+            byte[] hash = mac.doFinal(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(2 * KEY_HASH_BYTES);
+            for (int i = 0; i < KEY_HASH_BYTES; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not hash the cache key", e);
+        }
+    }
+
+    /**
+     * Sum the counts of the meters of the cache, whatever their type: the JCache statistics are bound as function
+     * counters or gauges.
+     */
+    private long count(String name, String cacheName, String... tags) {
+        return Math.round(
+            meterRegistry
+                .find(name)
+                .tag(RefreshAheadCache.METER_CACHE_DIMENSION, cacheName)
+                .tags(tags)
+                .meters()
+                .stream()
+                .map(Meter::measure)
+                .flatMap(measurements -> StreamSupport.stream(measurements.spliterator(), false))
+                .filter(measurement -> measurement.getStatistic() == Statistic.COUNT || measurement.getStatistic() == Statistic.VALUE)
+                .mapToDouble(measurement -> Double.isNaN(measurement.getValue()) ? 0 : measurement.getValue())
+                .sum()
+        );
+    }
+}
@@ -1,8 +1,19 @@
 package com.test.hero.config;
 
+import com.test.hero.repository.SuperHeroRepositoryWithTotalCount;
+import com.test.hero.service.SuperHeroIds;
 import java.sql.SQLException;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.type.StandardBasicTypes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -41,6 +52,41 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Register the custom HQL functions used by the repositories.
+     *
+     * @return the customizer adding the functions to the Hibernate metadata.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlFunctionsHibernatePropertiesCustomizer() {
+        MetadataBuilderContributor contributor = metadataBuilder ->
+            metadataBuilder.applySqlFunction(
+                SuperHeroRepositoryWithTotalCount.COUNT_OVER_FUNCTION,
+                new SQLFunctionTemplate(StandardBasicTypes.LONG, "count(*) over()")
+            );
+        return hibernateProperties -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.METADATA_BUILDER_CONTRIBUTOR, contributor);
+    }
+
+    /**
+     * Keep the {@link SuperHeroIds} bitmap up to date with the inserts and deletes of superHeroes, including the ones
+     * which do not go through {@code SuperHeroService}.
+     *
+     * @param entityManagerFactory the entity manager factory, whose event listeners are appended to.
+     * @param superHeroIds the bitmap of the superHero ids.
+     * @return the registered listener.
+     */
+    @Bean
+    public SuperHeroIdsEventListener superHeroIdsEventListener(EntityManagerFactory entityManagerFactory, SuperHeroIds superHeroIds) {
+        SuperHeroIdsEventListener listener = new SuperHeroIdsEventListener(superHeroIds);
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        return listener;
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
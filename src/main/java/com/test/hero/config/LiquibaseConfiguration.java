@@ -10,6 +10,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -24,8 +26,11 @@ public class LiquibaseConfiguration {
 
     private final Environment env;
 
-    public LiquibaseConfiguration(Environment env) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LiquibaseConfiguration(Environment env, ApplicationEventPublisher eventPublisher) {
         this.env = env;
+        this.eventPublisher = eventPublisher;
     }
 
     @Bean
@@ -38,9 +43,18 @@ public class LiquibaseConfiguration {
     ) {
         // If you don't want Liquibase to start asynchronously, substitute by this:
         // SpringLiquibase liquibase = SpringLiquibaseUtil.createSpringLiquibase(liquibaseDataSource.getIfAvailable(), liquibaseProperties, dataSource.getIfUnique(), dataSourceProperties);
+        // The asynchronous update publishes a LiquibaseUpdatedEvent once done, as it may complete after the application is ready
+        Executor notifyingExecutor = task ->
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    eventPublisher.publishEvent(new LiquibaseUpdatedEvent(this));
+                }
+            });
         SpringLiquibase liquibase = SpringLiquibaseUtil.createAsyncSpringLiquibase(
             this.env,
-            executor,
+            notifyingExecutor,
             liquibaseDataSource.getIfAvailable(),
             liquibaseProperties,
             dataSource.getIfUnique(),
@@ -66,4 +80,16 @@ public class LiquibaseConfiguration {
         }
         return liquibase;
     }
+
+    /**
+     * Published once an asynchronous Liquibase update is done, whether it succeeded or not.
+     */
+    public static class LiquibaseUpdatedEvent extends ApplicationEvent {
+
+        private static final long serialVersionUID = 1L;
+
+        public LiquibaseUpdatedEvent(Object source) {
+            super(source);
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package com.test.hero.config;
+
+import java.util.Locale;
+
+/**
+ * Time spent by the current thread in each {@link Segment} while handling a request, reported in the
+ * {@value #HEADER} response header.
+ * <p>
+ * Segments are exclusive: the time spent in a segment entered from another one, as a database load on a cache miss,
+ * is only counted in the inner segment.
+ */
+final class ServerTiming {
+
+    static final String HEADER = "Server-Timing";
+
+    static final String TOTAL = "total";
+
+    enum Segment {
+        DB("db"),
+        CACHE("cache"),
+        MAPPER("mapper"),
+        JSON("json");
+
+        private final String metricName;
+
+        Segment(String metricName) {
+            this.metricName = metricName;
+        }
+
+        String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+
+    private final long[] nanos = new long[Segment.values().length];
+
+    private Segment segment;
+
+    private long segmentStart;
+
+    private ServerTiming() {}
+
+    /**
+     * Start timing the segments of the current thread.
+     * @return the timing, which is updated until {@link #stop()} is called.
+     */
+    static ServerTiming start() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Stop timing the segments of the current thread.
+     */
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the timing of the current thread, or {@code null} if its segments are not timed.
+     */
+    static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Enter a segment, pausing the one it is entered from.
+     * @param segment the segment entered.
+     * @return the segment it is entered from, to give back to {@link #exit(Segment)}, or {@code null}.
+     */
+    Segment enter(Segment segment) {
+        long now = System.nanoTime();
+        Segment enclosing = this.segment;
+        if (enclosing != null) {
+            nanos[enclosing.ordinal()] += now - segmentStart;
+        }
+        this.segment = segment;
+        this.segmentStart = now;
+        return enclosing;
+    }
+
+    /**
+     * Exit the current segment, resuming the one it was entered from.
+     * @param enclosing the segment returned by {@link #enter(Segment)}.
+     */
+    void exit(Segment enclosing) {
+        long now = System.nanoTime();
+        nanos[segment.ordinal()] += now - segmentStart;
+        this.segment = enclosing;
+        this.segmentStart = now;
+    }
+
+    /**
+     * @return the value of the {@value #HEADER} header, as {@code db;dur=1.250, cache;dur=0.031, ...}, with the time
+     * spent so far in each segment, and in the whole request as {@value #TOTAL}, in milliseconds.
+     */
+    String toHeaderValue() {
+        StringBuilder value = new StringBuilder();
+        for (Segment timed : Segment.values()) {
+            appendMetric(value, timed.getMetricName(), nanos[timed.ordinal()]).append(", ");
+        }
+        return appendMetric(value, TOTAL, System.nanoTime() - start).toString();
+    }
+
+    private static StringBuilder appendMetric(StringBuilder value, String name, long nanos) {
+        return value.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+}
@@ -0,0 +1,66 @@
+package com.test.hero.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+/**
+ * Aspect timing the calls to the repositories, the superHero caches and the mappers in their {@link ServerTiming}
+ * segment, for the requests timed by {@link ServerTimingFilter}.
+ */
+@Aspect
+class ServerTimingAspect {
+
+    /**
+     * Pointcut that matches all repositories, Spring Data and others.
+     */
+    @Pointcut("target(org.springframework.data.repository.Repository) || within(@org.springframework.stereotype.Repository *)")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the caches of the superHero lookups and queries.
+     */
+    @Pointcut("within(com.test.hero.service.SuperHeroCache) || within(com.test.hero.service.SuperHeroQueryCache)")
+    public void cachePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all entity mappers.
+     */
+    @Pointcut("within(com.test.hero.service.mapper..*)")
+    public void mapperPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    @Around("repositoryPointcut()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, ServerTiming.Segment.DB);
+    }
+
+    @Around("cachePointcut()")
+    public Object timeCache(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, ServerTiming.Segment.CACHE);
+    }
+
+    @Around("mapperPointcut()")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, ServerTiming.Segment.MAPPER);
+    }
+
+    private static Object time(ProceedingJoinPoint joinPoint, ServerTiming.Segment segment) throws Throwable {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        ServerTiming.Segment enclosing = timing.enter(segment);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.exit(enclosing);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.test.hero.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Times the segments of each request, see {@link ServerTiming}, and reports them in the {@value ServerTiming#HEADER}
+ * response header.
+ * <p>
+ * The header is set right before the response is committed: when its body is first written, or it is flushed, or an
+ * error or redirect is sent. The time spent writing the body is therefore only reported when it is serialized ahead,
+ * as by {@link ServerTimingJackson2HttpMessageConverter}.
+ */
+class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, ServerTiming.start());
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            ServerTiming.stop();
+            timedResponse.setServerTimingHeader();
+        }
+    }
+
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+
+        private boolean headerSet;
+
+        ServerTimingResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void setServerTimingHeader() {
+            if (!headerSet && !isCommitted()) {
+                headerSet = true;
+                setHeader(ServerTiming.HEADER, timing.toHeaderValue());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setServerTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setServerTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setServerTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setServerTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setServerTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            setServerTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.test.hero.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Jackson converter timing the reads and writes of the requests timed by {@link ServerTimingFilter} in the
+ * {@link ServerTiming.Segment#JSON} segment.
+ * <p>
+ * The bodies of these requests are serialized ahead in memory, so that the time spent is known before the response is
+ * committed.
+ */
+class ServerTimingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    ServerTimingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return super.read(type, contextClass, inputMessage);
+        }
+        ServerTiming.Segment enclosing = timing.enter(ServerTiming.Segment.JSON);
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            timing.exit(enclosing);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return super.readInternal(clazz, inputMessage);
+        }
+        ServerTiming.Segment enclosing = timing.enter(ServerTiming.Segment.JSON);
+        try {
+            return super.readInternal(clazz, inputMessage);
+        } finally {
+            timing.exit(enclosing);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ServerTiming.Segment enclosing = timing.enter(ServerTiming.Segment.JSON);
+        try {
+            super.writeInternal(
+                object,
+                type,
+                new HttpOutputMessage() {
+                    @Override
+                    public OutputStream getBody() {
+                        return body;
+                    }
+
+                    @Override
+                    public HttpHeaders getHeaders() {
+                        return outputMessage.getHeaders();
+                    }
+                }
+            );
+        } finally {
+            timing.exit(enclosing);
+        }
+        body.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,144 @@
+package com.test.hero.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Datasource which records the statements executed by the threads counting them in their
+ * {@link SqlStatementStatistics}.
+ * <p>
+ * Connections, statements and result sets are wrapped in dynamic proxies, which only check whether the current thread
+ * counts its statements when one is executed, or a row read.
+ */
+public class SqlStatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute",
+        "executeQuery",
+        "executeUpdate",
+        "executeLargeUpdate",
+        "executeBatch",
+        "executeLargeBatch"
+    );
+
+    public SqlStatementCountingDataSource(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private static Connection connection(Connection connection) {
+        return proxy(
+            Connection.class,
+            (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (result instanceof Statement) {
+                    // The SQL of prepared statements is given when they are prepared, the others when executed
+                    String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                    return statement((Statement) result, sql);
+                }
+                return result;
+            }
+        );
+    }
+
+    private static Statement statement(Statement statement, String preparedSql) {
+        Class<? extends Statement> type = statement instanceof CallableStatement
+            ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return proxy(
+            type,
+            (proxy, method, args) -> {
+                SqlStatementStatistics statistics = SqlStatementStatistics.current();
+                if (statistics == null) {
+                    return invoke(statement, method, args);
+                }
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    String sql = preparedSql != null || args == null || args.length == 0 ? preparedSql : (String) args[0];
+                    long start = System.nanoTime();
+                    Object result = invoke(statement, method, args);
+                    statistics.recordStatement(sql, System.nanoTime() - start);
+                    recordWrittenRows(statistics, result);
+                    return result instanceof ResultSet ? resultSet((ResultSet) result) : result;
+                }
+                Object result = invoke(statement, method, args);
+                return "getResultSet".equals(method.getName()) && result != null ? resultSet((ResultSet) result) : result;
+            }
+        );
+    }
+
+    private static void recordWrittenRows(SqlStatementStatistics statistics, Object result) {
+        if (result instanceof Integer || result instanceof Long) {
+            statistics.recordRows(((Number) result).longValue());
+        } else if (result instanceof int[]) {
+            for (int updateCount : (int[]) result) {
+                statistics.recordRows(Math.max(updateCount, 0));
+            }
+        } else if (result instanceof long[]) {
+            for (long updateCount : (long[]) result) {
+                statistics.recordRows(Math.max(updateCount, 0));
+            }
+        }
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet) {
+        return proxy(
+            ResultSet.class,
+            (proxy, method, args) -> {
+                Object result = invoke(resultSet, method, args);
+                if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                    SqlStatementStatistics statistics = SqlStatementStatistics.current();
+                    if (statistics != null) {
+                        statistics.recordRows(1);
+                    }
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Proxy of the interface, whose identity is its own: the target would never be equal to its proxy.
+     */
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        InvocationHandler identityHandler = (proxy, method, args) -> {
+            if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            return handler.invoke(proxy, method, args);
+        };
+        return type.cast(
+            Proxy.newProxyInstance(SqlStatementCountingDataSource.class.getClassLoader(), new Class<?>[] { type }, identityHandler)
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
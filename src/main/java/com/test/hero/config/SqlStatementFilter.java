@@ -0,0 +1,128 @@
+package com.test.hero.config;
+
+import com.test.hero.security.jwt.JWTFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements executed by each request, see {@link SqlStatementStatistics}, and records them by endpoint,
+ * as {@code GET /api/super-heroes/{id}}, in the {@value #STATEMENTS_METER_NAME}, {@value #ROWS_METER_NAME} and
+ * {@value #TIME_METER_NAME} meters.
+ * <p>
+ * A warning is logged when a request executes more statements than the budget of its endpoint, or the same statement
+ * too many times, which is most likely an N+1 select: a query run for each row of a previous one.
+ * <p>
+ * The statistics are left in the {@value SqlStatementStatistics#REQUEST_ATTRIBUTE} request attribute.
+ */
+class SqlStatementFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METER_NAME = "sql.statements";
+    static final String ROWS_METER_NAME = "sql.rows";
+    static final String TIME_METER_NAME = "sql.time";
+    static final String ENDPOINT_TAG = "endpoint";
+
+    private final Logger log = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    private final ApplicationProperties.Sql properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The meters by endpoint, built and registered on the first request only.
+     */
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    SqlStatementFilter(ApplicationProperties.Sql properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        SqlStatementStatistics statistics = SqlStatementStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementStatistics.stop();
+            request.setAttribute(SqlStatementStatistics.REQUEST_ATTRIBUTE, statistics);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            // Requests which matched no handler mapping are not recorded, their paths would be unbounded, nor are the
+            // synthetic requests of the warm-up
+            if (pattern != null && request.getAttribute(JWTFilter.WARM_UP_ATTRIBUTE) == null) {
+                record(request.getMethod() + " " + pattern, statistics);
+            }
+        }
+    }
+
+    private void record(String endpoint, SqlStatementStatistics statistics) {
+        Meters endpointMeters = meters.computeIfAbsent(endpoint, this::register);
+        endpointMeters.statements.record(statistics.getStatements());
+        endpointMeters.rows.record(statistics.getRows());
+        endpointMeters.time.record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+
+        int budget = properties.getStatementBudgets().getOrDefault(endpoint, properties.getStatementBudget());
+        if (statistics.getStatements() > budget) {
+            log.warn("Request to {} executed {} SQL statements, over its budget of {}", endpoint, statistics.getStatements(), budget);
+        }
+        statistics
+            .getMostExecutedStatement()
+            .filter(statement -> statement.getValue() >= properties.getRepeatedStatementThreshold())
+            .ifPresent(statement ->
+                log.warn(
+                    "Request to {} executed the same SQL statement {} times, a possible N+1 select: {}",
+                    endpoint,
+                    statement.getValue(),
+                    statement.getKey()
+                )
+            );
+    }
+
+    private Meters register(String endpoint) {
+        return new Meters(
+            DistributionSummary
+                .builder(STATEMENTS_METER_NAME)
+                .description("SQL statements executed per request.")
+                .tag(ENDPOINT_TAG, endpoint)
+                .register(meterRegistry),
+            DistributionSummary
+                .builder(ROWS_METER_NAME)
+                .description("Rows read or written by the SQL statements of a request.")
+                .tag(ENDPOINT_TAG, endpoint)
+                .register(meterRegistry),
+            Timer
+                .builder(TIME_METER_NAME)
+                .description("Time spent executing the SQL statements of a request.")
+                .tag(ENDPOINT_TAG, endpoint)
+                .register(meterRegistry)
+        );
+    }
+
+    private static final class Meters {
+
+        private final DistributionSummary statements;
+
+        private final DistributionSummary rows;
+
+        private final Timer time;
+
+        private Meters(DistributionSummary statements, DistributionSummary rows, Timer time) {
+            this.statements = statements;
+            this.rows = rows;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.test.hero.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts of the SQL statements executed by the current thread while handling a request: statements, rows read or
+ * written, time spent executing them, and executions of each distinct statement, which tell N+1 selects.
+ * <p>
+ * Statements are only counted between {@link #start()} and {@link #stop()}, by {@link SqlStatementCountingDataSource}.
+ * Those executed by other threads, as by asynchronous or streamed responses, are not.
+ */
+public final class SqlStatementStatistics {
+
+    /**
+     * Name of the request attribute holding the statistics of the request once it is handled.
+     */
+    public static final String REQUEST_ATTRIBUTE = SqlStatementStatistics.class.getName();
+
+    private static final ThreadLocal<SqlStatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+
+    private long rows;
+
+    private long nanos;
+
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    private SqlStatementStatistics() {}
+
+    /**
+     * Start counting the statements of the current thread.
+     * @return the statistics, which are updated until {@link #stop()} is called.
+     */
+    public static SqlStatementStatistics start() {
+        SqlStatementStatistics statistics = new SqlStatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Stop counting the statements of the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the statistics of the current thread, or {@code null} if its statements are not counted.
+     */
+    static SqlStatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        this.nanos += nanos;
+        if (sql != null) {
+            executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void recordRows(long rows) {
+        this.rows += rows;
+    }
+
+    /**
+     * @return the number of statements executed, a batch counting as one.
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the number of rows read from the result sets, or written.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the time spent executing the statements, in nanoseconds, without reading their result sets.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the statement executed the most times, with its number of executions.
+     */
+    public Optional<Map.Entry<String, Integer>> getMostExecutedStatement() {
+        return executions.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+}
@@ -0,0 +1,55 @@
+package com.test.hero.config;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.service.SuperHeroIds;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Adds the ids of the inserted superHeroes to {@link SuperHeroIds} as soon as they are inserted, and removes the ids
+ * of the deleted ones once their delete is committed. Loads the bitmap again once an asynchronous Liquibase update is
+ * done, which inserts rows without Hibernate, and may complete after the bitmap was first loaded.
+ */
+final class SuperHeroIdsEventListener implements PostInsertEventListener, PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient SuperHeroIds superHeroIds;
+
+    SuperHeroIdsEventListener(SuperHeroIds superHeroIds) {
+        this.superHeroIds = superHeroIds;
+    }
+
+    @EventListener(LiquibaseConfiguration.LiquibaseUpdatedEvent.class)
+    public void onLiquibaseUpdated() {
+        superHeroIds.load();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof SuperHero) {
+            superHeroIds.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof SuperHero) {
+            superHeroIds.remove((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // The superHero still exists, and its id was left in place
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return SuperHero.class.equals(persister.getMappedClass());
+    }
+}
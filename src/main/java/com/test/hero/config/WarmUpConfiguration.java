@@ -0,0 +1,292 @@
+package com.test.hero.config;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.User;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.repository.UserRepository;
+import com.test.hero.security.AuthoritiesConstants;
+import com.test.hero.security.jwt.JWTFilter;
+import com.test.hero.security.jwt.TokenProvider;
+import com.test.hero.service.SuperHeroService;
+import com.test.hero.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Warm-up of a freshly started application, run once it is ready, which is before its readiness state is changed to
+ * accept traffic, so that its first requests do not pay for empty caches, a cold connection pool and interpreted code.
+ * <p>
+ * The warm-up, in order:
+ * <ul>
+ * <li>preloads the first superHeroes by id and the most recently modified activated users in their caches, on top of
+ * the entries restored from the cache snapshot;</li>
+ * <li>opens the minimum number of idle connections of the pool;</li>
+ * <li>replays a mix of read-only superHero requests over HTTP, authenticated with a JWT, so that the JIT compiler
+ * compiles the path through {@link JWTFilter}, the superHero resource and Jackson. They are sent to the scheme, address
+ * and context path the server listens on, each with a timeout, and given up past the deadline of the warm-up. The JWT
+ * expires with the deadline, and carries the {@link AuthoritiesConstants#WARM_UP} authority, so that the requests are
+ * not recorded in the request and SQL meters, nor in the hot keys of the caches.</li>
+ * </ul>
+ * Each step only logs its failure, so that a failed warm-up leaves a cold, but ready, application. The duration of the
+ * warm-up is logged, and reported by the {@code warmUp} health indicator of the readiness group, which is out of
+ * service until the warm-up is done.
+ */
+@Configuration
+public class WarmUpConfiguration {
+
+    private static final String WARM_UP_LOGIN = "warm-up";
+
+    private static final int BY_IDS_SIZE = 10;
+
+    private final Logger log = LoggerFactory.getLogger(WarmUpConfiguration.class);
+
+    private final ApplicationProperties.WarmUp warmUp;
+
+    private final SuperHeroRepository superHeroRepository;
+
+    private final SuperHeroService superHeroService;
+
+    private final UserRepository userRepository;
+
+    private final UserService userService;
+
+    private final DataSource dataSource;
+
+    private final TokenProvider tokenProvider;
+
+    private final ServerProperties serverProperties;
+
+    private volatile Duration duration;
+
+    public WarmUpConfiguration(
+        ApplicationProperties applicationProperties,
+        SuperHeroRepository superHeroRepository,
+        SuperHeroService superHeroService,
+        UserRepository userRepository,
+        UserService userService,
+        DataSource dataSource,
+        TokenProvider tokenProvider,
+        ServerProperties serverProperties
+    ) {
+        this.warmUp = applicationProperties.getWarmUp();
+        this.superHeroRepository = superHeroRepository;
+        this.superHeroService = superHeroService;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.dataSource = dataSource;
+        this.tokenProvider = tokenProvider;
+        this.serverProperties = serverProperties;
+    }
+
+    @Bean
+    public HealthIndicator warmUpHealthIndicator() {
+        return () -> {
+            Duration warmUpDuration = duration;
+            if (warmUpDuration == null) {
+                return Health.outOfService().build();
+            }
+            return Health.up().withDetail("durationMillis", warmUpDuration.toMillis()).build();
+        };
+    }
+
+    /**
+     * Warm up the application, after the other listeners of the ready application, such as the cache snapshot
+     * restore.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!warmUp.isEnabled()) {
+            duration = Duration.ZERO;
+            return;
+        }
+        long start = System.nanoTime();
+        List<Long> superHeroIds = preloadSuperHeroes();
+        preloadUsers();
+        openConnections();
+        if (event.getApplicationContext() instanceof WebServerApplicationContext) {
+            int port = ((WebServerApplicationContext) event.getApplicationContext()).getWebServer().getPort();
+            replayRequests(port, superHeroIds);
+        }
+        duration = Duration.ofNanos(System.nanoTime() - start);
+        log.info("Warmed up in {} ms", duration.toMillis());
+    }
+
+    private List<Long> preloadSuperHeroes() {
+        long start = System.nanoTime();
+        try {
+            List<Long> ids = superHeroRepository
+                .findAll(PageRequest.of(0, warmUp.getSuperHeroes(), Sort.by(Sort.Direction.ASC, "id")))
+                .map(SuperHero::getId)
+                .getContent();
+            superHeroService.findAllById(ids);
+            log.debug("Preloaded {} superHeroes in {} ms", ids.size(), millisSince(start));
+            return ids;
+        } catch (RuntimeException e) {
+            log.warn("Could not preload the superHeroes", e);
+            return List.of();
+        }
+    }
+
+    private void preloadUsers() {
+        long start = System.nanoTime();
+        try {
+            Sort mostRecentlyModified = Sort.by(Sort.Direction.DESC, "lastModifiedDate");
+            List<String> logins = userRepository
+                .findAllByIdNotNullAndActivatedIsTrue(PageRequest.of(0, warmUp.getUsers(), mostRecentlyModified))
+                .map(User::getLogin)
+                .getContent();
+            logins.forEach(userService::getUserWithAuthoritiesByLogin);
+            log.debug("Preloaded {} users in {} ms", logins.size(), millisSince(start));
+        } catch (RuntimeException e) {
+            log.warn("Could not preload the users", e);
+        }
+    }
+
+    /**
+     * Hold the minimum number of idle connections of the pool at once, which makes the pool open those missing.
+     */
+    private void openConnections() {
+        long start = System.nanoTime();
+        List<Connection> connections = new ArrayList<>();
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+            int minimumIdle = Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize());
+            while (connections.size() < minimumIdle) {
+                connections.add(dataSource.getConnection());
+            }
+            log.debug("Opened {} connections in {} ms", minimumIdle, millisSince(start));
+        } catch (SQLException e) {
+            log.warn("Could not open the connections of the pool", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Could not return a connection to the pool", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replay a mix of lookups by id, pages, lookups by ids with a JSON body, and counts of superHeroes.
+     */
+    private void replayRequests(int port, List<Long> superHeroIds) {
+        long start = System.nanoTime();
+        List<SimpleGrantedAuthority> authorities = List.of(
+            new SimpleGrantedAuthority(AuthoritiesConstants.USER),
+            new SimpleGrantedAuthority(AuthoritiesConstants.WARM_UP)
+        );
+        String token = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(WARM_UP_LOGIN, null, authorities),
+            TimeUnit.SECONDS.toMillis(warmUp.getTimeoutSeconds()) + warmUp.getRequestTimeoutMillis()
+        );
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(warmUp.getConnectTimeoutMillis())).build();
+        String baseUrl = baseUrl(port) + "/api/super-heroes";
+        long deadline = start + TimeUnit.SECONDS.toNanos(warmUp.getTimeoutSeconds());
+        int failures = 0;
+        try {
+            for (int i = 0; i < warmUp.getRequests(); i++) {
+                if (System.nanoTime() - deadline > 0) {
+                    log.warn("Gave up the warm-up requests after {} of {}, past {} s", i, warmUp.getRequests(), warmUp.getTimeoutSeconds());
+                    return;
+                }
+                HttpRequest.Builder request = HttpRequest
+                    .newBuilder()
+                    .timeout(Duration.ofMillis(warmUp.getRequestTimeoutMillis()))
+                    .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token)
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+                switch (i % 10) {
+                    case 7:
+                        // The first pages, from the first one, which the clients request first
+                        request.uri(URI.create(baseUrl + "?page=" + (i / 10 % 5) + "&size=20"));
+                        break;
+                    case 8:
+                        request
+                            .uri(URI.create(baseUrl + "/by-ids"))
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .POST(HttpRequest.BodyPublishers.ofString(byIds(superHeroIds, i)));
+                        break;
+                    case 9:
+                        request.uri(URI.create(baseUrl + "/count"));
+                        break;
+                    default:
+                        long id = superHeroIds.isEmpty() ? i : superHeroIds.get(i % superHeroIds.size());
+                        request.uri(URI.create(baseUrl + "/" + id));
+                }
+                if (client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode() >= 500) {
+                    failures++;
+                }
+            }
+            log.debug("Replayed {} requests, {} failed, in {} ms", warmUp.getRequests(), failures, millisSince(start));
+        } catch (IOException e) {
+            log.warn("Could not replay the warm-up requests", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the URL of the application on this host, with the scheme, address and context path of the server.
+     */
+    private String baseUrl(int port) {
+        boolean ssl = serverProperties.getSsl() != null && serverProperties.getSsl().isEnabled();
+        InetAddress address = serverProperties.getAddress();
+        String host = address == null || address.isAnyLocalAddress() ? "localhost" : address.getHostAddress();
+        if (host.contains(":")) {
+            host = "[" + host + "]";
+        }
+        String contextPath = serverProperties.getServlet().getContextPath();
+        return (ssl ? "https" : "http") + "://" + host + ":" + port + (contextPath == null ? "" : contextPath);
+    }
+
+    private static String byIds(List<Long> superHeroIds, int offset) {
+        if (superHeroIds.isEmpty()) {
+            return "[]";
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < BY_IDS_SIZE; i++) {
+            ids.add(superHeroIds.get((offset + i) % superHeroIds.size()));
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -2,12 +2,15 @@ package com.test.hero.domain;
 
 import java.io.Serializable;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A SuperHero.
  */
 @Entity
 @Table(name = "super_hero")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class SuperHero implements Serializable {
 
@@ -28,6 +31,10 @@ public class SuperHero implements Serializable {
     @Column(name = "superpower")
     private String superpower;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -82,6 +89,19 @@ public class SuperHero implements Serializable {
         this.superpower = superpower;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public SuperHero version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -109,6 +129,7 @@ public class SuperHero implements Serializable {
             ", name='" + getName() + "'" +
             ", age=" + getAge() +
             ", superpower='" + getSuperpower() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
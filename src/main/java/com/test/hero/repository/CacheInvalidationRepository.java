@@ -0,0 +1,148 @@
+package com.test.hero.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository of the cache invalidations, recorded with plain JDBC: their ids are drawn from an identity column, so that
+ * they follow the order of the inserts across nodes, and the inserts are sent in a single batch.
+ * <p>
+ * The statements run in the current transaction, if any.
+ */
+@Repository
+public class CacheInvalidationRepository {
+
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CacheInvalidationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Record the invalidation of the given keys of the cache.
+     * @param origin the node which invalidated the keys.
+     * @param cacheName the name of the cache.
+     * @param cacheKeys the keys, or a single {@code null} key for all the keys of the cache.
+     */
+    public void saveAll(String origin, String cacheName, Collection<String> cacheKeys) {
+        jdbcTemplate.batchUpdate(
+            "insert into cache_invalidation (cache_name, cache_key, origin) values (?, ?, ?)",
+            cacheKeys.stream().map(cacheKey -> new Object[] { cacheName, cacheKey, origin }).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * @return the id of the last recorded invalidation, or {@code 0} if there is none.
+     */
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    /**
+     * @param id the id after which to look.
+     * @param limit the maximum number of invalidations returned.
+     * @return the invalidations recorded after the given id, by id.
+     */
+    public List<CacheInvalidation> findAllByIdGreaterThan(long id, int limit) {
+        return jdbcTemplate.query(
+            "select id, cache_name, cache_key, origin from cache_invalidation where id > ? order by id limit ?",
+            CacheInvalidationRepository::mapRow,
+            id,
+            limit
+        );
+    }
+
+    /**
+     * @param ids the ids of the invalidations.
+     * @return the invalidations with the given ids which exist, by id.
+     */
+    public List<CacheInvalidation> findAllByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> sortedIds = ids.stream().sorted().collect(Collectors.toList());
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        for (int from = 0; from < sortedIds.size(); from += IN_CLAUSE_SIZE) {
+            List<Long> chunk = sortedIds.subList(from, Math.min(from + IN_CLAUSE_SIZE, sortedIds.size()));
+            invalidations.addAll(
+                jdbcTemplate.query(
+                    "select id, cache_name, cache_key, origin from cache_invalidation where id in (" +
+                    chunk.stream().map(chunkId -> "?").collect(Collectors.joining(", ")) +
+                    ") order by id",
+                    CacheInvalidationRepository::mapRow,
+                    chunk.toArray()
+                )
+            );
+        }
+        return invalidations;
+    }
+
+    /**
+     * @param createdDate the date before which the invalidations are deleted.
+     * @return the number of deleted invalidations.
+     */
+    public int deleteAllByCreatedDateBefore(Instant createdDate) {
+        return jdbcTemplate.update("delete from cache_invalidation where created_date < ?", Timestamp.from(createdDate));
+    }
+
+    private static CacheInvalidation mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        return new CacheInvalidation(
+            resultSet.getLong("id"),
+            resultSet.getString("cache_name"),
+            resultSet.getString("cache_key"),
+            resultSet.getString("origin")
+        );
+    }
+
+    /**
+     * The invalidation of a key of a cache, or of all its keys.
+     */
+    public static final class CacheInvalidation {
+
+        private final long id;
+
+        private final String cacheName;
+
+        private final String cacheKey;
+
+        private final String origin;
+
+        public CacheInvalidation(long id, String cacheName, String cacheKey, String origin) {
+            this.id = id;
+            this.cacheName = cacheName;
+            this.cacheKey = cacheKey;
+            this.origin = origin;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getCacheName() {
+            return cacheName;
+        }
+
+        /**
+         * @return the invalidated key, or {@code null} if all the keys of the cache are invalidated.
+         */
+        public String getCacheKey() {
+            return cacheKey;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+    }
+}
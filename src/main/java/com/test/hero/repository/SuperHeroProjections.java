@@ -0,0 +1,99 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.SuperHero_;
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import org.hibernate.jpa.QueryHints;
+
+/**
+ * Selection and hints shared by the {@link SuperHero} queries which support projections.
+ *
+ * @see SuperHeroRepositoryWithProjection
+ */
+final class SuperHeroProjections {
+
+    private SuperHeroProjections() {}
+
+    /**
+     * Select the root entity when {@code type} is {@link SuperHero}, or a constructor expression of {@code type} on
+     * its columns otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Selection<? extends T> select(Class<T> type, Root<SuperHero> root, CriteriaBuilder cb) {
+        if (SuperHero.class.equals(type)) {
+            return (Selection<? extends T>) root;
+        }
+        return cb.construct(
+            type,
+            root.get(SuperHero_.id),
+            root.get(SuperHero_.name),
+            root.get(SuperHero_.age),
+            root.get(SuperHero_.superpower),
+            root.get(SuperHero_.version)
+        );
+    }
+
+    /**
+     * Same as {@link #select(Class, Root, CriteriaBuilder)}, for tuple queries which cannot mix a constructor expression
+     * with other selections: the columns are selected one by one, and {@link #tupleReader(Class)} builds the projection.
+     */
+    static List<Selection<?>> tupleSelections(Class<?> type, Root<SuperHero> root) {
+        if (SuperHero.class.equals(type)) {
+            return Collections.singletonList(root);
+        }
+        return List.of(
+            root.get(SuperHero_.id),
+            root.get(SuperHero_.name),
+            root.get(SuperHero_.age),
+            root.get(SuperHero_.superpower),
+            root.get(SuperHero_.version)
+        );
+    }
+
+    /**
+     * Read the entity or the projection from the leading selections of a tuple built with {@link #tupleSelections(Class, Root)}.
+     */
+    static <T> Function<Tuple, T> tupleReader(Class<T> type) {
+        if (SuperHero.class.equals(type)) {
+            return tuple -> tuple.get(0, type);
+        }
+        Function<Object[], T> rowReader = rowReader(type);
+        return tuple -> rowReader.apply(tuple.toArray());
+    }
+
+    /**
+     * Build the projection from a row holding the {@code id}, {@code name}, {@code age}, {@code superpower} and
+     * {@code version} columns, in that order.
+     */
+    static <T> Function<Object[], T> rowReader(Class<T> type) {
+        Constructor<T> constructor;
+        try {
+            constructor = type.getConstructor(Long.class, String.class, Integer.class, String.class, Long.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " has no (id, name, age, superpower, version) constructor", e);
+        }
+        return row -> {
+            try {
+                return constructor.newInstance(row[0], row[1], row[2], row[3], row[4]);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not instantiate " + type.getName(), e);
+            }
+        };
+    }
+
+    /**
+     * Mark the query as read-only, so that selected entities are not snapshotted for dirty checking, and set the JDBC
+     * fetch size.
+     */
+    static <T> TypedQuery<T> readOnly(TypedQuery<T> query, int fetchSize) {
+        return query.setHint(QueryHints.HINT_READONLY, true).setHint(QueryHints.HINT_FETCH_SIZE, fetchSize);
+    }
+}
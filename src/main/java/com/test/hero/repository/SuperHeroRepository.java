@@ -1,6 +1,8 @@
 package com.test.hero.repository;
 
 import com.test.hero.domain.SuperHero;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,30 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SuperHeroRepository extends JpaRepository<SuperHero, Long>, JpaSpecificationExecutor<SuperHero> {}
+public interface SuperHeroRepository
+    extends
+        SuperHeroRepositoryWithBulkOperations,
+        SuperHeroRepositoryWithKeyset,
+        SuperHeroRepositoryWithProjection,
+        SuperHeroRepositoryWithScroll,
+        SuperHeroRepositoryWithSlice,
+        SuperHeroRepositoryWithTotalCount,
+        SuperHeroRepositoryWithUpdateById,
+        JpaRepository<SuperHero, Long>,
+        JpaSpecificationExecutor<SuperHero> {
+    /**
+     * Same as the default implementation, but through {@link #findById(Object)} instead of a count query, so that
+     * the second level cache is used.
+     */
+    @Override
+    default boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Stream the ids of all the superHeroes. Must be called inside a transaction, and the stream closed.
+     */
+    @Query("select superHero.id from SuperHero superHero")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Long> streamAllIds();
+}
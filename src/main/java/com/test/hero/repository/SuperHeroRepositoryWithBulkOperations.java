@@ -0,0 +1,39 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Set-based operations on the {@link SuperHero} entities matching a specification, each issued as a single statement.
+ * <p>
+ * Like {@link org.springframework.data.jpa.repository.Modifying} queries with {@code clearAutomatically}, the bulk
+ * statements bypass the persistence context, which is cleared afterwards.
+ */
+public interface SuperHeroRepositoryWithBulkOperations {
+    /**
+     * @param specification the filters to apply, may be {@code null}.
+     * @param limit the maximum number of ids to return.
+     * @return the ids of the matching entities, at most {@code limit} of them.
+     */
+    List<Long> findAllIds(Specification<SuperHero> specification, int limit);
+
+    /**
+     * Delete all the entities matching the specification with a single {@code DELETE} statement.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @return the number of deleted rows.
+     */
+    int deleteAllMatching(Specification<SuperHero> specification);
+
+    /**
+     * Set the non-null attributes of {@code values} on all the entities matching the specification, with a single
+     * {@code UPDATE} statement, which also increments their version. The id and the version of {@code values} are
+     * ignored.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param values the attribute values to set.
+     * @return the number of updated rows.
+     */
+    int updateAllMatching(Specification<SuperHero> specification, SuperHero values);
+}
@@ -0,0 +1,83 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.SuperHero_;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+public class SuperHeroRepositoryWithBulkOperationsImpl implements SuperHeroRepositoryWithBulkOperations {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findAllIds(Specification<SuperHero> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<SuperHero> root = query.from(SuperHero.class);
+        Predicate predicate = toPredicate(specification, root, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get(SuperHero_.id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int deleteAllMatching(Specification<SuperHero> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<SuperHero> delete = cb.createCriteriaDelete(SuperHero.class);
+        Root<SuperHero> root = delete.from(SuperHero.class);
+        Predicate predicate = toPredicate(specification, root, cb);
+        if (predicate != null) {
+            delete.where(predicate);
+        }
+        return afterBulkStatement(entityManager.createQuery(delete).executeUpdate());
+    }
+
+    @Override
+    public int updateAllMatching(Specification<SuperHero> specification, SuperHero values) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<SuperHero> update = cb.createCriteriaUpdate(SuperHero.class);
+        Root<SuperHero> root = update.from(SuperHero.class);
+        if (values.getName() != null) {
+            update.set(root.get(SuperHero_.name), values.getName());
+        }
+        if (values.getAge() != null) {
+            update.set(root.get(SuperHero_.age), values.getAge());
+        }
+        if (values.getSuperpower() != null) {
+            update.set(root.get(SuperHero_.superpower), values.getSuperpower());
+        }
+        // Bulk statements are not versioned by Hibernate, the version is bumped like an entity update would
+        update.set(root.get(SuperHero_.version), cb.sum(root.get(SuperHero_.version), 1L));
+        Predicate predicate = toPredicate(specification, root, cb);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        return afterBulkStatement(entityManager.createQuery(update).executeUpdate());
+    }
+
+    private int afterBulkStatement(int affectedRows) {
+        // The managed entities may not reflect the bulk statement anymore
+        entityManager.clear();
+        return affectedRows;
+    }
+
+    private Predicate toPredicate(Specification<SuperHero> specification, Root<SuperHero> root, CriteriaBuilder cb) {
+        if (specification == null) {
+            return null;
+        }
+        // Specifications are written against a select query, which is only used to set "distinct" and is irrelevant
+        // to a set-based statement: the predicate itself only depends on the root it is given
+        return specification.toPredicate(root, cb.createQuery(SuperHero.class), cb);
+    }
+}
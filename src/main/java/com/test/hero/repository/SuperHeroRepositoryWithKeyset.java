@@ -0,0 +1,35 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import java.util.List;
+import javax.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset (seek) pagination for the {@link SuperHero} entity.
+ * <p>
+ * Rows are ordered by {@code (sortAttribute, id)} and a page starts right after the given position, so the
+ * database never has to skip over the previous pages like it does with {@code OFFSET}.
+ */
+public interface SuperHeroRepositoryWithKeyset {
+    /**
+     * Fetch at most {@code limit} entities matching the specification, positioned after the given keyset.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param sortAttribute the attribute to sort on, the id is always used as tie-breaker.
+     * @param direction the sort direction, applied to both the sort attribute and the id.
+     * @param lastValue the sort attribute value of the last row of the previous page.
+     * @param lastId the id of the last row of the previous page, or {@code null} to fetch the first page.
+     * @param limit the maximum number of rows to return.
+     * @return the matching entities.
+     */
+    List<SuperHero> findAllAfter(
+        Specification<SuperHero> specification,
+        SingularAttribute<SuperHero, ? extends Comparable<?>> sortAttribute,
+        Sort.Direction direction,
+        Comparable<?> lastValue,
+        Long lastId,
+        int limit
+    );
+}
@@ -0,0 +1,135 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.SuperHero_;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset pagination implementation, {@code null} sort values are always ordered last.
+ * <p>
+ * A listing sorted on another attribute than the id goes through two phases, each served by the {@code (sort key, id)}
+ * index of the attribute: the rows with a sort value first, then the rows without one ordered by id, so that neither
+ * the order nor the seek has to handle {@code null} values. A page spanning both issues one query per phase.
+ */
+public class SuperHeroRepositoryWithKeysetImpl implements SuperHeroRepositoryWithKeyset {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<SuperHero> findAllAfter(
+        Specification<SuperHero> specification,
+        SingularAttribute<SuperHero, ? extends Comparable<?>> sortAttribute,
+        Sort.Direction direction,
+        Comparable<?> lastValue,
+        Long lastId,
+        int limit
+    ) {
+        boolean ascending = direction.isAscending();
+        if (sortAttribute.isId()) {
+            return find(specification, null, false, null, lastId, ascending, limit);
+        }
+        SingularAttribute<SuperHero, Comparable> sortKey = (SingularAttribute) sortAttribute;
+        if (lastId != null && lastValue == null) {
+            // The previous page already reached the null values, which are sorted last
+            return find(specification, sortKey, true, null, lastId, ascending, limit);
+        }
+        List<SuperHero> superHeroes = find(specification, sortKey, false, (Comparable) lastValue, lastId, ascending, limit);
+        if (superHeroes.size() < limit) {
+            superHeroes = new ArrayList<>(superHeroes);
+            superHeroes.addAll(find(specification, sortKey, true, null, null, ascending, limit - superHeroes.size()));
+        }
+        return superHeroes;
+    }
+
+    /**
+     * Fetch the rows of a phase: those whose sort key is {@code null}, ordered by id, or those with a sort key, ordered
+     * by sort key then id. Without a sort key, the rows are ordered by id.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private List<SuperHero> find(
+        Specification<SuperHero> specification,
+        SingularAttribute<SuperHero, Comparable> sortAttribute,
+        boolean nullSortKeys,
+        Comparable lastValue,
+        Long lastId,
+        boolean ascending,
+        int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SuperHero> query = cb.createQuery(SuperHero.class);
+        Root<SuperHero> root = query.from(SuperHero.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        // Only the root entity is selected so rows are already unique, and "distinct" would keep the index from serving the order
+        query.distinct(false);
+
+        Path<Long> id = root.get(SuperHero_.id);
+        List<Order> orders = new ArrayList<>();
+        if (sortAttribute != null) {
+            Path<Comparable> sortKey = root.get(sortAttribute);
+            if (nullSortKeys) {
+                predicates.add(cb.isNull(sortKey));
+            } else {
+                predicates.add(cb.isNotNull(sortKey));
+                if (lastId != null) {
+                    predicates.add(seek(cb, sortKey, lastValue, id, lastId, ascending));
+                }
+                orders.add(ascending ? cb.asc(sortKey) : cb.desc(sortKey));
+            }
+        }
+        if (lastId != null && (sortAttribute == null || nullSortKeys)) {
+            predicates.add(after(cb, id, lastId, ascending));
+        }
+        orders.add(ascending ? cb.asc(id) : cb.desc(id));
+        query.where(predicates.toArray(new Predicate[0])).orderBy(orders);
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * The rows after {@code (lastValue, lastId)}, as {@code sortKey >= lastValue and (sortKey > lastValue or id > lastId)}
+     * when ascending: the leading range lets the database seek the {@code (sort key, id)} index to the position, unlike
+     * a disjunction of the two cases alone.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate seek(
+        CriteriaBuilder cb,
+        Path<Comparable> sortKey,
+        Comparable lastValue,
+        Path<Long> id,
+        Long lastId,
+        boolean ascending
+    ) {
+        Predicate from = ascending ? cb.greaterThanOrEqualTo(sortKey, lastValue) : cb.lessThanOrEqualTo(sortKey, lastValue);
+        return cb.and(from, cb.or(after(cb, sortKey, lastValue, ascending), after(cb, id, lastId, ascending)));
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate after(
+        CriteriaBuilder cb,
+        Expression<? extends Y> path,
+        Y value,
+        boolean ascending
+    ) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+}
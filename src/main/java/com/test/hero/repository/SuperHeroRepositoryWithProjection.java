@@ -0,0 +1,26 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Queries for the {@link SuperHero} entity which select straight into a projection class, without hydrating managed
+ * entities.
+ * <p>
+ * A projection class must have a public constructor taking the {@code id}, {@code name}, {@code age},
+ * {@code superpower} and {@code version} columns, in that order. Passing {@code SuperHero.class} selects entities as usual.
+ */
+public interface SuperHeroRepositoryWithProjection {
+    /**
+     * Same as {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification)}, but
+     * rows are selected into the projection class through a read-only query.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param type the projection class.
+     * @param fetchSize the number of rows to fetch per database round trip.
+     * @param <T> the projection type.
+     * @return the matching rows.
+     */
+    <T> List<T> findAllProjected(Specification<SuperHero> specification, Class<T> type, int fetchSize);
+}
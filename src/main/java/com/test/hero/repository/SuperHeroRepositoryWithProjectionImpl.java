@@ -0,0 +1,32 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+public class SuperHeroRepositoryWithProjectionImpl implements SuperHeroRepositoryWithProjection {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <T> List<T> findAllProjected(Specification<SuperHero> specification, Class<T> type, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<SuperHero> root = query.from(SuperHero.class);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(SuperHeroProjections.select(type, root, cb));
+        return SuperHeroProjections.readOnly(entityManager.createQuery(query), fetchSize).getResultList();
+    }
+}
@@ -0,0 +1,23 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import java.util.function.Consumer;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Forward-only iteration over large result sets of the {@link SuperHero} entity.
+ */
+public interface SuperHeroRepositoryWithScroll {
+    /**
+     * Iterate over all the entities matching the specification, ordered by id, through a forward-only JDBC cursor.
+     * <p>
+     * The persistence context is cleared every {@code fetchSize} rows, so that memory use does not depend on the number
+     * of matching rows: the entities must not be used after the action returns. This must be called inside a
+     * transaction.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param fetchSize the number of rows fetched per database round trip.
+     * @param action the action applied to each entity.
+     */
+    void scrollAll(Specification<SuperHero> specification, int fetchSize, Consumer<SuperHero> action);
+}
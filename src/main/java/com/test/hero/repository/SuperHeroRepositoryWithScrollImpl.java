@@ -0,0 +1,50 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.SuperHero_;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.data.jpa.domain.Specification;
+
+public class SuperHeroRepositoryWithScrollImpl implements SuperHeroRepositoryWithScroll {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void scrollAll(Specification<SuperHero> specification, int fetchSize, Consumer<SuperHero> action) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SuperHero> query = cb.createQuery(SuperHero.class);
+        Root<SuperHero> root = query.from(SuperHero.class);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(root);
+        query.orderBy(cb.asc(root.get(SuperHero_.id)));
+
+        Query<SuperHero> hibernateQuery = entityManager.createQuery(query).unwrap(Query.class);
+        hibernateQuery.setFetchSize(fetchSize).setReadOnly(true).setCacheMode(CacheMode.IGNORE);
+        try (ScrollableResults results = hibernateQuery.scroll(ScrollMode.FORWARD_ONLY)) {
+            long count = 0;
+            while (results.next()) {
+                action.accept((SuperHero) results.get(0));
+                if (++count % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Count-free paged queries for the {@link SuperHero} entity.
+ */
+public interface SuperHeroRepositoryWithSlice {
+    /**
+     * Fetch a {@link Slice} of the entities matching the specification. One extra row is read to know whether there
+     * is a next slice, and no count query is issued.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param pageable the slice to fetch.
+     * @param type {@code SuperHero.class}, or a projection class as described in {@link SuperHeroRepositoryWithProjection}.
+     * @param <T> the entity or projection type.
+     * @return the slice of matching entities.
+     */
+    <T> Slice<T> findAllAsSlice(Specification<SuperHero> specification, Pageable pageable, Class<T> type);
+}
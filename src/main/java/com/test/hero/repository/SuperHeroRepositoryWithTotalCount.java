@@ -0,0 +1,31 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Paged queries for the {@link SuperHero} entity which fetch the page and the total count in a single statement.
+ */
+public interface SuperHeroRepositoryWithTotalCount {
+    /**
+     * Name of the HQL function rendered as {@code count(*) over()}, registered by the database configuration.
+     */
+    String COUNT_OVER_FUNCTION = "count_over";
+
+    /**
+     * Same as {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#findAll(Specification, Pageable)},
+     * but the total is read from a {@code count(*) over()} window on the page rows instead of a separate count query.
+     * <p>
+     * On dialects without window functions, or when the requested page is past the last row, a count query is
+     * still issued when the total cannot be deduced from the page itself.
+     *
+     * @param specification the filters to apply, may be {@code null}.
+     * @param pageable the page to fetch.
+     * @param type {@code SuperHero.class}, or a projection class as described in {@link SuperHeroRepositoryWithProjection}.
+     * @param <T> the entity or projection type.
+     * @return the page of matching entities.
+     */
+    <T> Page<T> findAllWithTotalCount(Specification<SuperHero> specification, Pageable pageable, Class<T> type);
+}
@@ -0,0 +1,124 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import org.hibernate.dialect.DB2Dialect;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MariaDB103Dialect;
+import org.hibernate.dialect.MySQL8Dialect;
+import org.hibernate.dialect.Oracle8iDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.dialect.SQLServer2005Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class SuperHeroRepositoryWithTotalCountImpl implements SuperHeroRepositoryWithTotalCount {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Boolean windowFunctionsSupported;
+
+    @Override
+    public <T> Page<T> findAllWithTotalCount(Specification<SuperHero> specification, Pageable pageable, Class<T> type) {
+        if (pageable.isUnpaged() || !windowFunctionsSupported()) {
+            return findAllWithCountQuery(specification, pageable, type);
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<SuperHero> root = applySpecification(specification, query, cb);
+        // Only the root entity columns are selected so rows are already unique, and "distinct" would also apply to the window
+        query.distinct(false);
+        List<Selection<?>> selections = new ArrayList<>(SuperHeroProjections.tupleSelections(type, root));
+        int totalIndex = selections.size();
+        selections.add(cb.function(COUNT_OVER_FUNCTION, Long.class));
+        query.multiselect(selections);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Tuple> rows = paginate(SuperHeroProjections.readOnly(entityManager.createQuery(query), pageable.getPageSize()), pageable)
+            .getResultList();
+        if (rows.isEmpty()) {
+            // Past the last page, there is no row to read the total from
+            return PageableExecutionUtils.getPage(Collections.emptyList(), pageable, () -> count(specification));
+        }
+        List<T> content = rows.stream().map(SuperHeroProjections.tupleReader(type)).collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, rows.get(0).get(totalIndex, Long.class));
+    }
+
+    private <T> Page<T> findAllWithCountQuery(Specification<SuperHero> specification, Pageable pageable, Class<T> type) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<SuperHero> root = applySpecification(specification, query, cb);
+        query.select(SuperHeroProjections.select(type, root, cb));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            paginate(SuperHeroProjections.readOnly(typedQuery, pageable.getPageSize()), pageable);
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(specification));
+    }
+
+    private long count(Specification<SuperHero> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<SuperHero> root = applySpecification(specification, query, cb);
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        // Ordering is irrelevant for a count, and "distinct" is already part of the selection
+        query.distinct(false);
+        query.orderBy(Collections.emptyList());
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Root<SuperHero> applySpecification(Specification<SuperHero> specification, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Root<SuperHero> root = query.from(SuperHero.class);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return root;
+    }
+
+    private static <T> TypedQuery<T> paginate(TypedQuery<T> query, Pageable pageable) {
+        return query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+
+    private boolean windowFunctionsSupported() {
+        if (windowFunctionsSupported == null) {
+            Dialect dialect = entityManager
+                .getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+            windowFunctionsSupported =
+                dialect instanceof PostgreSQL81Dialect ||
+                dialect instanceof H2Dialect ||
+                dialect instanceof Oracle8iDialect ||
+                dialect instanceof SQLServer2005Dialect ||
+                dialect instanceof MySQL8Dialect ||
+                dialect instanceof MariaDB103Dialect ||
+                dialect instanceof DB2Dialect;
+        }
+        return windowFunctionsSupported;
+    }
+}
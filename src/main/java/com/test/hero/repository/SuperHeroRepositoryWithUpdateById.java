@@ -0,0 +1,25 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import java.util.Optional;
+
+/**
+ * Update of a single {@link SuperHero} with one {@code UPDATE ... WHERE id = ?} statement, without loading the entity
+ * first.
+ * <p>
+ * On the databases which can return the updated row from the statement itself (PostgreSQL and H2), no other statement
+ * is issued. Elsewhere, the updated row is selected afterwards.
+ */
+public interface SuperHeroRepositoryWithUpdateById {
+    /**
+     * Set the attributes of {@code values} on the entity with the same id, and increment its version.
+     *
+     * @param values the id of the entity, and the attribute values to set.
+     * @param partial whether {@code null} attributes are left unchanged, rather than set to {@code null}.
+     * @param expectedVersion the version which the entity must be at to be updated, or {@code null} for any version.
+     * @param type the projection class of the result, as for {@link SuperHeroRepositoryWithProjection}.
+     * @param <T> the projection type.
+     * @return the updated row, or an empty value if no entity has this id, at this version if there is one.
+     */
+    <T> Optional<T> updateById(SuperHero values, boolean partial, Long expectedVersion, Class<T> type);
+}
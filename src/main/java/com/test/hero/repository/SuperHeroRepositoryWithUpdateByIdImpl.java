@@ -0,0 +1,152 @@
+package com.test.hero.repository;
+
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.SuperHero_;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.dialect.DB2Dialect;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+
+public class SuperHeroRepositoryWithUpdateByIdImpl implements SuperHeroRepositoryWithUpdateById {
+
+    private static final Map<String, Type> RETURNED_COLUMNS = returnedColumns();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Returning returning;
+
+    @Override
+    public <T> Optional<T> updateById(SuperHero values, boolean partial, Long expectedVersion, Class<T> type) {
+        Long id = values.getId();
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        if (!partial || values.getName() != null) {
+            assignments.put("name", values.getName());
+        }
+        if (!partial || values.getAge() != null) {
+            assignments.put("age", values.getAge());
+        }
+        if (!partial || values.getSuperpower() != null) {
+            assignments.put("superpower", values.getSuperpower());
+        }
+        StringBuilder update = new StringBuilder("update super_hero set ");
+        assignments.keySet().forEach(column -> update.append(column).append(" = :").append(column).append(", "));
+        // An empty patch changes nothing, so the representation and its version stay the same
+        update.append(assignments.isEmpty() ? "version = version" : "version = version + 1").append(" where id = :id");
+        if (expectedVersion != null) {
+            update.append(" and version = :version");
+        }
+
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(SuperHero.class);
+        // The statement bypasses the persistence context and the second level cache, which would not reflect it
+        Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+        if (managed != null) {
+            entityManager.detach(managed);
+        }
+        lockCachedEntity(session, persister, id);
+
+        Returning mode = returning(session);
+        if (mode == Returning.NONE) {
+            NativeQuery<?> query = session.createNativeQuery(update.toString()).addSynchronizedEntityClass(SuperHero.class);
+            bind(query, assignments, id, expectedVersion);
+            if (query.executeUpdate() == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(selectById(id, type));
+        }
+        String sql = mode == Returning.CLAUSE
+            ? update + " returning " + String.join(", ", RETURNED_COLUMNS.keySet())
+            : "select " + String.join(", ", RETURNED_COLUMNS.keySet()) + " from final table (" + update + ")";
+        NativeQuery<Object[]> query = session.createNativeQuery(sql);
+        RETURNED_COLUMNS.forEach(query::addScalar);
+        bind(query, assignments, id, expectedVersion);
+        List<Object[]> rows = query.getResultList();
+        return rows.stream().findFirst().map(SuperHeroProjections.rowReader(type));
+    }
+
+    /**
+     * Lock the cached entity until the end of the transaction, as Hibernate does when it updates an entity: it is then
+     * neither read from the cache nor put back into it by a transaction which may have read the row before the update.
+     */
+    private static void lockCachedEntity(SessionImplementor session, EntityPersister persister, Long id) {
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        Object key = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cacheAccess.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completedSession) -> cacheAccess.unlockItem(completedSession, key, lock));
+    }
+
+    private <T> T selectById(Long id, Class<T> type) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<SuperHero> root = query.from(SuperHero.class);
+        query.select(SuperHeroProjections.select(type, root, cb)).where(cb.equal(root.get(SuperHero_.id), id));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void bind(NativeQuery<?> query, Map<String, Object> assignments, Long id, Long expectedVersion) {
+        assignments.forEach((column, value) -> query.setParameter(column, value, RETURNED_COLUMNS.get(column)));
+        query.setParameter("id", id, StandardBasicTypes.LONG);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion, StandardBasicTypes.LONG);
+        }
+    }
+
+    private Returning returning(SessionImplementor session) {
+        if (returning == null) {
+            Dialect dialect = session.getJdbcServices().getDialect();
+            if (dialect instanceof PostgreSQL81Dialect) {
+                returning = Returning.CLAUSE;
+            } else if (dialect instanceof H2Dialect || dialect instanceof DB2Dialect) {
+                returning = Returning.FINAL_TABLE;
+            } else {
+                returning = Returning.NONE;
+            }
+        }
+        return returning;
+    }
+
+    /**
+     * The columns of the projection constructor, in order, with their types.
+     */
+    private static Map<String, Type> returnedColumns() {
+        Map<String, Type> columns = new LinkedHashMap<>();
+        columns.put("id", StandardBasicTypes.LONG);
+        columns.put("name", StandardBasicTypes.STRING);
+        columns.put("age", StandardBasicTypes.INTEGER);
+        columns.put("superpower", StandardBasicTypes.STRING);
+        columns.put("version", StandardBasicTypes.LONG);
+        return columns;
+    }
+
+    /**
+     * How the database returns the rows changed by an {@code UPDATE} statement.
+     */
+    private enum Returning {
+        /** {@code UPDATE ... RETURNING}, as in PostgreSQL. */
+        CLAUSE,
+        /** {@code SELECT ... FROM FINAL TABLE (UPDATE ...)}, as in H2 and DB2. */
+        FINAL_TABLE,
+        /** Not supported, the row is selected after the update. */
+        NONE,
+    }
+}
@@ -2,12 +2,15 @@ package com.test.hero.repository;
 
 import com.test.hero.domain.User;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -25,12 +28,29 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, cacheResolver = "refreshAheadCacheResolver", sync = true)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, cacheResolver = "refreshAheadCacheResolver", sync = true)
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    Slice<User> findSliceByIdNotNullAndActivatedIsTrue(Pageable pageable);
+
+    /**
+     * @param logins the logins of the users.
+     * @return the users with these logins, with their authorities.
+     */
+    @EntityGraph(attributePaths = "authorities")
+    List<User> findAllWithAuthoritiesByLoginIn(Collection<String> logins);
+
+    /**
+     * @param emails the emails of the users, in lower case.
+     * @return the users with these emails, ignoring case, with their authorities.
+     */
+    @EntityGraph(attributePaths = "authorities")
+    @Query("select user from User user where lower(user.email) in :emails")
+    List<User> findAllWithAuthoritiesByLowerCaseEmailIn(@Param("emails") Collection<String> emails);
 }
@@ -11,5 +11,11 @@ public final class AuthoritiesConstants {
 
     public static final String ANONYMOUS = "ROLE_ANONYMOUS";
 
+    /**
+     * Granted to the synthetic requests of the warm-up only, which are not recorded in the metrics. It is not an
+     * authority of the database, and cannot be given to a user.
+     */
+    public static final String WARM_UP = "ROLE_WARM_UP";
+
     private AuthoritiesConstants() {}
 }
@@ -94,6 +94,15 @@ public final class SecurityUtils {
         return hasCurrentUserAnyOfAuthorities(authority);
     }
 
+    /**
+     * Checks if the current request is a synthetic request of the warm-up.
+     *
+     * @return true if the current user has the {@link AuthoritiesConstants#WARM_UP} authority, false otherwise.
+     */
+    public static boolean isWarmUp() {
+        return hasCurrentUserThisAuthority(AuthoritiesConstants.WARM_UP);
+    }
+
     private static Stream<String> getAuthorities(Authentication authentication) {
         return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority);
     }
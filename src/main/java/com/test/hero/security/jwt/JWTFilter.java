@@ -1,5 +1,6 @@
 package com.test.hero.security.jwt;
 
+import com.test.hero.security.SecurityUtils;
 import java.io.IOException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -19,6 +20,12 @@ public class JWTFilter extends GenericFilterBean {
 
     public static final String AUTHORIZATION_HEADER = "Authorization";
 
+    /**
+     * Request attribute set on the synthetic requests of the warm-up, for the filters which run outside of the security
+     * context.
+     */
+    public static final String WARM_UP_ATTRIBUTE = JWTFilter.class.getName() + ".WARM_UP";
+
     private final TokenProvider tokenProvider;
 
     public JWTFilter(TokenProvider tokenProvider) {
@@ -33,6 +40,9 @@ public class JWTFilter extends GenericFilterBean {
         if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
             Authentication authentication = this.tokenProvider.getAuthentication(jwt);
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (SecurityUtils.isWarmUp()) {
+                httpServletRequest.setAttribute(WARM_UP_ATTRIBUTE, Boolean.TRUE);
+            }
         }
         filterChain.doFilter(servletRequest, servletResponse);
     }
@@ -0,0 +1,295 @@
+package com.test.hero.service;
+
+import com.test.hero.config.ApplicationProperties;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.User;
+import com.test.hero.repository.CacheInvalidationRepository;
+import com.test.hero.repository.CacheInvalidationRepository.CacheInvalidation;
+import com.test.hero.repository.UserRepository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Bus of the cache invalidations between the nodes of the application, through the database.
+ * <p>
+ * The services publish the keys they evict from their own caches, which records them in the
+ * {@code cache_invalidation} table in the transaction of the write: they are seen by the other nodes once the write is
+ * committed, and never if it is rolled back. Every node polls the table for the invalidations recorded after the last
+ * one it has seen, its high water mark, and evicts the keys invalidated by the other nodes from its caches, including
+ * the second level cache of Hibernate.
+ * <p>
+ * Ids are drawn when a row is inserted, but seen once it is committed: a poll may see an id before a lower one which is
+ * not committed yet. The ids skipped by a poll are looked up again by the next polls for
+ * {@code application.cache.invalidation.lookback-millis}. A node which could not poll for longer than the retention of
+ * the invalidations may have missed some, and clears its caches.
+ * <p>
+ * The bus also adds the ids of the superHeroes inserted by the other nodes to {@link SuperHeroIds}, which otherwise
+ * reports them absent until it is rebuilt: it must be enabled when several nodes share the database. A node which may
+ * have missed invalidations, or is told to clear its superHero cache, loads the bitmap again.
+ */
+@Service
+@Transactional
+public class CacheInvalidationBus {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Number of skipped ids looked up again, past which the oldest ones are given up.
+     */
+    private static final int MAX_GAPS = 10000;
+
+    private static final String USER_AUTHORITIES_ROLE = User.class.getName() + ".authorities";
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    /**
+     * Identifies the invalidations of this node, which are applied as they are published.
+     */
+    private final String origin = UUID.randomUUID().toString();
+
+    private final ApplicationProperties.Cache.Invalidation invalidation;
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+
+    private final SuperHeroCache superHeroCache;
+
+    private final SuperHeroQueryCache superHeroQueryCache;
+
+    private final SuperHeroIds superHeroIds;
+
+    private final CacheManager cacheManager;
+
+    private final RefreshAheadCacheResolver refreshAheadCacheResolver;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The ids skipped by the polls, with the time they were skipped at, the oldest first.
+     */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private long highWaterMark = -1;
+
+    private long lastPoll;
+
+    public CacheInvalidationBus(
+        ApplicationProperties applicationProperties,
+        CacheInvalidationRepository cacheInvalidationRepository,
+        SuperHeroCache superHeroCache,
+        SuperHeroQueryCache superHeroQueryCache,
+        SuperHeroIds superHeroIds,
+        CacheManager cacheManager,
+        RefreshAheadCacheResolver refreshAheadCacheResolver,
+        EntityManagerFactory entityManagerFactory
+    ) {
+        this.invalidation = applicationProperties.getCache().getInvalidation();
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.superHeroCache = superHeroCache;
+        this.superHeroQueryCache = superHeroQueryCache;
+        this.superHeroIds = superHeroIds;
+        this.cacheManager = cacheManager;
+        this.refreshAheadCacheResolver = refreshAheadCacheResolver;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Record the invalidation of the key of the cache for the other nodes, which see it once the current transaction
+     * is committed.
+     * @param cacheName the name of the cache, or of the entity whose second level cache entry is invalidated.
+     * @param key the key, or the id of the entity.
+     */
+    public void publish(String cacheName, Object key) {
+        publishAll(cacheName, List.of(key));
+    }
+
+    /**
+     * Record the invalidation of the keys of the cache for the other nodes, which see it once the current transaction
+     * is committed.
+     * @param cacheName the name of the cache, or of the entity whose second level cache entries are invalidated.
+     * @param keys the keys, or the ids of the entities.
+     */
+    public void publishAll(String cacheName, Collection<?> keys) {
+        if (invalidation.isEnabled() && !keys.isEmpty()) {
+            cacheInvalidationRepository.saveAll(origin, cacheName, keys.stream().map(String::valueOf).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Record the invalidation of all the keys of the cache for the other nodes, which see it once the current
+     * transaction is committed.
+     * @param cacheName the name of the cache, or of the entity whose second level cache entries are invalidated.
+     */
+    public void publishClear(String cacheName) {
+        if (invalidation.isEnabled()) {
+            cacheInvalidationRepository.saveAll(origin, cacheName, Collections.singletonList(null));
+        }
+    }
+
+    /**
+     * Apply the invalidations recorded by the other nodes since the last poll.
+     * <p>
+     * The first poll only reads the high water mark: the caches are filled after the invalidations recorded so far.
+     */
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.poll-interval-millis:1000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public synchronized void poll() {
+        if (!invalidation.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        try {
+            if (highWaterMark < 0) {
+                highWaterMark = cacheInvalidationRepository.findMaxId();
+                lastPoll = now;
+                // The superHeroes inserted by the other nodes between its first load and the high water mark
+                superHeroIds.load();
+                return;
+            }
+            if (now - lastPoll > TimeUnit.SECONDS.toNanos(invalidation.getRetentionSeconds())) {
+                long seconds = TimeUnit.NANOSECONDS.toSeconds(now - lastPoll);
+                log.warn("Could not poll the cache invalidations for {} s, clearing the caches", seconds);
+                clearAll();
+            }
+            for (CacheInvalidation cacheInvalidation : cacheInvalidationRepository.findAllByIdIn(gaps.keySet())) {
+                gaps.remove(cacheInvalidation.getId());
+                apply(cacheInvalidation);
+            }
+            List<CacheInvalidation> cacheInvalidations;
+            do {
+                cacheInvalidations = cacheInvalidationRepository.findAllByIdGreaterThan(highWaterMark, BATCH_SIZE);
+                for (CacheInvalidation cacheInvalidation : cacheInvalidations) {
+                    skip(highWaterMark + 1, cacheInvalidation.getId(), now);
+                    highWaterMark = cacheInvalidation.getId();
+                    apply(cacheInvalidation);
+                }
+            } while (cacheInvalidations.size() == BATCH_SIZE);
+            long lookback = TimeUnit.MILLISECONDS.toNanos(invalidation.getLookbackMillis());
+            gaps.values().removeIf(skippedAt -> now - skippedAt > lookback);
+            lastPoll = now;
+        } catch (DataAccessException e) {
+            if (highWaterMark < 0) {
+                // The table may not be created yet, while Liquibase runs
+                log.debug("Could not read the cache invalidations: {}", e.getMessage());
+            } else {
+                log.warn("Could not poll the cache invalidations: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delete the invalidations older than their retention.
+     */
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.retention-seconds:3600}", timeUnit = TimeUnit.SECONDS)
+    public void deleteExpired() {
+        if (!invalidation.isEnabled()) {
+            return;
+        }
+        try {
+            int deleted = cacheInvalidationRepository.deleteAllByCreatedDateBefore(
+                Instant.now().minusSeconds(invalidation.getRetentionSeconds())
+            );
+            log.debug("Deleted {} expired cache invalidations", deleted);
+        } catch (DataAccessException e) {
+            log.warn("Could not delete the expired cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Remember the ids between the high water mark and the next id seen, which may not be committed yet.
+     */
+    private void skip(long fromId, long toId, long now) {
+        for (long id = Math.max(fromId, toId - MAX_GAPS); id < toId; id++) {
+            if (gaps.size() >= MAX_GAPS) {
+                Iterator<Long> oldest = gaps.keySet().iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            gaps.put(id, now);
+        }
+    }
+
+    private void apply(CacheInvalidation cacheInvalidation) {
+        if (origin.equals(cacheInvalidation.getOrigin())) {
+            return;
+        }
+        String cacheName = cacheInvalidation.getCacheName();
+        String key = cacheInvalidation.getCacheKey();
+        log.debug("Applying the invalidation of {} in {}", key == null ? "all the keys" : key, cacheName);
+        org.hibernate.Cache hibernateCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (SuperHeroCache.SUPER_HERO_CACHE.equals(cacheName)) {
+            if (key == null) {
+                superHeroCache.invalidateAll();
+                hibernateCache.evictEntityData(SuperHero.class);
+                // The superHeroes inserted by the other node are not known either
+                superHeroIds.load();
+            } else {
+                Long id = Long.valueOf(key);
+                // The superHero may have been created by the other node
+                superHeroIds.add(id);
+                superHeroCache.invalidate(id);
+                hibernateCache.evictEntityData(SuperHero.class, id);
+            }
+            superHeroQueryCache.invalidate();
+        } else if (User.class.getName().equals(cacheName)) {
+            if (key == null) {
+                hibernateCache.evictEntityData(User.class);
+                hibernateCache.evictCollectionData(USER_AUTHORITIES_ROLE);
+            } else {
+                Long id = Long.valueOf(key);
+                hibernateCache.evictEntityData(User.class, id);
+                hibernateCache.evictCollectionData(USER_AUTHORITIES_ROLE, id);
+            }
+        } else {
+            Cache cache = cache(cacheName);
+            if (cache == null) {
+                log.warn("Could not apply the invalidation of the unknown cache {}", cacheName);
+            } else if (key == null) {
+                cache.clear();
+            } else {
+                cache.evict(key);
+            }
+        }
+    }
+
+    private void clearAll() {
+        superHeroIds.load();
+        superHeroCache.invalidateAll();
+        superHeroQueryCache.invalidate();
+        for (String cacheName : List.of(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE)) {
+            refreshAheadCacheResolver.getCache(cacheName).clear();
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    /**
+     * The caches with refresh-ahead are evicted through it, so that the loads started before the eviction are not
+     * cached after it.
+     */
+    private Cache cache(String cacheName) {
+        for (RefreshAheadCache cache : refreshAheadCacheResolver.getCaches()) {
+            if (cache.getName().equals(cacheName)) {
+                return cache;
+            }
+        }
+        return cacheManager.getCache(cacheName);
+    }
+}
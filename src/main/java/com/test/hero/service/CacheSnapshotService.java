@@ -0,0 +1,434 @@
+package com.test.hero.service;
+
+import com.test.hero.config.ApplicationProperties;
+import com.test.hero.domain.SuperHero_;
+import com.test.hero.domain.User;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.repository.UserRepository;
+import com.test.hero.service.dto.SuperHeroDTO;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Snapshot of the caches with refresh-ahead, written on shutdown and restored on startup, so that a restarted
+ * application does not reload all its hot entries from the database.
+ * <p>
+ * The snapshot is restored once the application is ready, which is before its readiness state is changed to accept
+ * traffic. The superHero entries keep the time they were loaded, so those past their time to live are dropped, and so
+ * are those at another version in the database since. The restored superHeroes are those read from the database, not
+ * from the snapshot. The user caches only have their keys, logins and emails, in the snapshot: the users are reloaded
+ * from the database, and never written to the file. Absent users are not restored.
+ * <p>
+ * The file starts with a header of {@link #MAGIC}, {@link #FORMAT_VERSION}, the time it was written and the number of
+ * caches, followed by a section per cache: its name, number of entries, and the length and bytes of its entries. A
+ * superHero entry is its id, time loaded, and whether it is present, followed by the version and fields of the
+ * {@link SuperHeroDTO} if it is; a user entry is its key. It is written, readable by its owner only, to a temporary file
+ * mapped in memory, then moved in place, and read mapped in memory as well.
+ */
+@Service
+public class CacheSnapshotService {
+
+    static final int MAGIC = 0x48524348;
+
+    static final int FORMAT_VERSION = 2;
+
+    /**
+     * Number of ids per query when checking the restored entries against the database.
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    private static final Set<PosixFilePermission> GROUP_AND_OTHERS = EnumSet.of(
+        PosixFilePermission.GROUP_READ,
+        PosixFilePermission.GROUP_WRITE,
+        PosixFilePermission.GROUP_EXECUTE,
+        PosixFilePermission.OTHERS_READ,
+        PosixFilePermission.OTHERS_WRITE,
+        PosixFilePermission.OTHERS_EXECUTE
+    );
+
+    private final Logger log = LoggerFactory.getLogger(CacheSnapshotService.class);
+
+    private final ApplicationProperties.Cache.Snapshot snapshot;
+
+    private final RefreshAheadCacheResolver refreshAheadCacheResolver;
+
+    private final SuperHeroCache superHeroCache;
+
+    private final SuperHeroRepository superHeroRepository;
+
+    private final UserRepository userRepository;
+
+    public CacheSnapshotService(
+        ApplicationProperties applicationProperties,
+        RefreshAheadCacheResolver refreshAheadCacheResolver,
+        SuperHeroCache superHeroCache,
+        SuperHeroRepository superHeroRepository,
+        UserRepository userRepository
+    ) {
+        this.snapshot = applicationProperties.getCache().getSnapshot();
+        this.refreshAheadCacheResolver = refreshAheadCacheResolver;
+        this.superHeroCache = superHeroCache;
+        this.superHeroRepository = superHeroRepository;
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void writeOnShutdown() {
+        if (isEnabled()) {
+            write(Path.of(snapshot.getPath()));
+        }
+    }
+
+    /**
+     * Restore the caches before the other listeners of the ready application, such as the warm-up, which then only
+     * loads what is missing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void restoreOnStartup() {
+        if (isEnabled()) {
+            restore(Path.of(snapshot.getPath()));
+        }
+    }
+
+    private boolean isEnabled() {
+        if (snapshot.isEnabled() && snapshot.getPath() == null) {
+            log.warn("The snapshot of the caches is enabled without a path, it is neither written nor restored");
+            return false;
+        }
+        return snapshot.isEnabled();
+    }
+
+    /**
+     * Write the entries of the caches within their time to live to a snapshot. A failure is logged, and leaves the
+     * previous snapshot, if any, in place.
+     * @param path the snapshot file.
+     */
+    public void write(Path path) {
+        long start = System.nanoTime();
+        try {
+            List<Section> sections = new ArrayList<>();
+            long length = Integer.BYTES * 3L + Long.BYTES;
+            for (RefreshAheadCache cache : refreshAheadCacheResolver.getCaches()) {
+                Section section = section(cache);
+                if (section != null) {
+                    sections.add(section);
+                    length += Integer.BYTES * 3L + section.name.length + section.payload.length;
+                }
+            }
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            createOwnerOnly(temporary);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(System.currentTimeMillis()).putInt(sections.size());
+                for (Section section : sections) {
+                    buffer.putInt(section.name.length).put(section.name);
+                    buffer.putInt(section.count).putInt(section.payload.length).put(section.payload);
+                }
+                buffer.force();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info(
+                "Wrote a snapshot of {} entries of the caches to {} in {} ms",
+                sections.stream().mapToInt(section -> section.count).sum(),
+                path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+            );
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the snapshot of the caches to {}", path, e);
+        }
+    }
+
+    private Section section(RefreshAheadCache cache) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (SuperHeroCache.SUPER_HERO_CACHE.equals(cache.getName())) {
+                for (RefreshAheadCache.StampedEntry entry : superHeroCache.entries()) {
+                    writeSuperHero(out, entry);
+                    count++;
+                }
+            } else if (isUserCache(cache.getName())) {
+                for (RefreshAheadCache.StampedEntry entry : cache.entries()) {
+                    if (entry.getKey() instanceof String && entry.getValue() instanceof User) {
+                        out.writeUTF((String) entry.getKey());
+                        count++;
+                    }
+                }
+            } else {
+                return null;
+            }
+        }
+        return new Section(cache.getName().getBytes(StandardCharsets.UTF_8), count, bytes.toByteArray());
+    }
+
+    /**
+     * Restore the entries of the caches from a snapshot, dropping those past their time to live or changed in the
+     * database since. A missing or unreadable snapshot leaves the caches empty, and so does one which other users than
+     * its owner may read or write.
+     * @param path the snapshot file.
+     */
+    public void restore(Path path) {
+        if (!Files.isRegularFile(path)) {
+            log.info("No snapshot of the caches to restore at {}", path);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (isPosix(path) && Files.getPosixFilePermissions(path).stream().anyMatch(GROUP_AND_OTHERS::contains)) {
+                log.warn("Ignoring the snapshot of the caches at {}, which is not accessible to its owner only", path);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                    log.warn("Ignoring the snapshot of the caches at {}, which is not in format version {}", path, FORMAT_VERSION);
+                    return;
+                }
+                Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+                int sections = buffer.getInt();
+                for (int i = 0; i < sections; i++) {
+                    byte[] name = new byte[buffer.getInt()];
+                    buffer.get(name);
+                    String cacheName = new String(name, StandardCharsets.UTF_8);
+                    int count = buffer.getInt();
+                    int length = buffer.getInt();
+                    ByteBuffer payload = buffer.slice().limit(length);
+                    buffer.position(buffer.position() + length);
+                    int restored = restore(cacheName, new DataInputStream(new ByteBufferInputStream(payload)), count);
+                    log.info(
+                        "Restored {} of {} entries of cache {} from the snapshot written at {}",
+                        restored,
+                        count,
+                        cacheName,
+                        writtenAt
+                    );
+                }
+            }
+            log.info("Restored the caches from {} in {} ms", path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore the caches from the snapshot at {}", path, e);
+        }
+    }
+
+    private int restore(String cacheName, DataInputStream in, int count) throws IOException {
+        if (SuperHeroCache.SUPER_HERO_CACHE.equals(cacheName)) {
+            List<RefreshAheadCache.StampedEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(readSuperHero(in));
+            }
+            return superHeroCache.restore(entries, this::findSuperHeroes);
+        }
+        if (isUserCache(cacheName)) {
+            List<String> keys = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                keys.add(in.readUTF());
+            }
+            return restoreUsers(refreshAheadCacheResolver.getCache(cacheName), keys);
+        }
+        log.debug("Ignoring the entries of cache {}, which is not restored", cacheName);
+        return 0;
+    }
+
+    private static boolean isUserCache(String cacheName) {
+        return UserRepository.USERS_BY_LOGIN_CACHE.equals(cacheName) || UserRepository.USERS_BY_EMAIL_CACHE.equals(cacheName);
+    }
+
+    private Map<Long, SuperHeroDTO> findSuperHeroes(Set<Long> ids) {
+        Map<Long, SuperHeroDTO> superHeroes = new HashMap<>();
+        for (List<Long> chunk : chunks(ids)) {
+            superHeroRepository
+                .findAllProjected((root, query, cb) -> root.get(SuperHero_.id).in(chunk), SuperHeroDTO.class, chunk.size())
+                .forEach(superHero -> superHeroes.put(superHero.getId(), superHero));
+        }
+        return superHeroes;
+    }
+
+    /**
+     * Reload the users of the keys of the snapshot from the database, by login or by email ignoring case, as the cached
+     * lookups of {@link UserRepository} do.
+     */
+    private int restoreUsers(RefreshAheadCache cache, List<String> keys) {
+        boolean byLogin = UserRepository.USERS_BY_LOGIN_CACHE.equals(cache.getName());
+        Function<String, String> normalize = byLogin ? Function.identity() : key -> key.toLowerCase(Locale.ROOT);
+        Map<String, User> users = new HashMap<>();
+        for (List<String> chunk : chunks(keys.stream().map(normalize).collect(Collectors.toSet()))) {
+            List<User> found = byLogin
+                ? userRepository.findAllWithAuthoritiesByLoginIn(chunk)
+                : userRepository.findAllWithAuthoritiesByLowerCaseEmailIn(chunk);
+            for (User user : found) {
+                users.put(normalize.apply(byLogin ? user.getLogin() : user.getEmail()), user);
+            }
+        }
+        long loadedAt = System.currentTimeMillis();
+        int restored = 0;
+        for (String key : keys) {
+            User user = users.get(normalize.apply(key));
+            if (user != null && cache.restore(new RefreshAheadCache.StampedEntry(key, user, loadedAt))) {
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    private static void writeSuperHero(DataOutputStream out, RefreshAheadCache.StampedEntry entry) throws IOException {
+        SuperHeroDTO superHero = (SuperHeroDTO) entry.getValue();
+        out.writeLong((Long) entry.getKey());
+        out.writeLong(entry.getLoadedAt());
+        out.writeBoolean(superHero != null);
+        if (superHero != null) {
+            writeNullableLong(out, superHero.getVersion());
+            writeNullableString(out, superHero.getName());
+            writeNullableLong(out, superHero.getAge() == null ? null : superHero.getAge().longValue());
+            writeNullableString(out, superHero.getSuperpower());
+        }
+    }
+
+    private static RefreshAheadCache.StampedEntry readSuperHero(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        long loadedAt = in.readLong();
+        SuperHeroDTO superHero = null;
+        if (in.readBoolean()) {
+            Long version = readNullableLong(in);
+            String name = readNullableString(in);
+            Long age = readNullableLong(in);
+            superHero = new SuperHeroDTO(id, name, age == null ? null : Math.toIntExact(age), readNullableString(in), version);
+        }
+        return new RefreshAheadCache.StampedEntry(id, superHero, loadedAt);
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Create an empty file, replacing any, which only its owner may read and write, in a directory only its owner may
+     * access if it has to be created.
+     */
+    private static void createOwnerOnly(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.deleteIfExists(file);
+        if (isPosix(directory)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+        } else {
+            Files.createDirectories(directory);
+            Files.createFile(file);
+        }
+    }
+
+    private static boolean isPosix(Path path) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> all = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+
+    private static final class Section {
+
+        private final byte[] name;
+
+        private final int count;
+
+        private final byte[] payload;
+
+        private Section(byte[] name, int count, byte[] payload) {
+            this.name = name;
+            this.count = count;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Reads a buffer mapped in memory without copying it to the heap first.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return length == 0 ? 0 : -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.test.hero.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Records that the current request was served a stale cache entry, so that its response can say so.
+ * <p>
+ * Outside of a request, nothing is recorded.
+ */
+public final class CacheStaleness {
+
+    private static final String REQUEST_ATTRIBUTE = CacheStaleness.class.getName() + ".age";
+
+    private CacheStaleness() {}
+
+    /**
+     * Record that a stale entry was served to the current request.
+     * @param age the time elapsed since the entry was loaded.
+     */
+    static void record(Duration age) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Duration recorded = (Duration) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (recorded == null || recorded.compareTo(age) < 0) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, age, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * @return the age of the oldest stale entry served to the current request, or an empty value if it was only
+     * served fresh entries.
+     */
+    public static Optional<Duration> ofCurrentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((Duration) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+}
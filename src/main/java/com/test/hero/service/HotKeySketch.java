@@ -0,0 +1,117 @@
+package com.test.hero.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Estimates the access frequency of keys in bounded memory, and keeps track of the most frequently accessed ones.
+ * <p>
+ * Frequencies are counted in a count-min sketch of {@value #DEPTH} rows of counters, indexed by a different hash of
+ * the key in each row: the estimate of a key is the smallest of its counters, which may overestimate it by the
+ * accesses of the keys sharing those counters, but never underestimates it. Once the sketch has counted ten accesses
+ * per counter of a row, all the counters are halved, so that the estimates follow the recent accesses.
+ * <p>
+ * The keys whose estimate exceeds the smallest of the tracked ones replace it, which keeps a bounded number of
+ * candidates, twice the number of hot keys reported.
+ */
+public class HotKeySketch {
+
+    private static final int DEPTH = 4;
+
+    private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+
+    private final int hotKeys;
+
+    private final int width;
+
+    private final AtomicLongArray counters;
+
+    private final long sampleSize;
+
+    private final AtomicLong samples = new AtomicLong();
+
+    private final ConcurrentMap<Object, Long> candidates = new ConcurrentHashMap<>();
+
+    private volatile long threshold;
+
+    /**
+     * @param hotKeys the number of hot keys reported.
+     * @param width the number of counters per row, rounded up to a power of two; the more distinct keys are accessed,
+     * the more counters are needed for accurate estimates.
+     */
+    public HotKeySketch(int hotKeys, int width) {
+        this.hotKeys = hotKeys;
+        this.width = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.counters = new AtomicLongArray(DEPTH * this.width);
+        this.sampleSize = 10L * this.width;
+    }
+
+    /**
+     * Count an access to the key.
+     * @param key the key accessed.
+     */
+    public void record(Object key) {
+        if (key == null) {
+            return;
+        }
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        if (candidates.replace(key, estimate) == null && estimate > threshold) {
+            track(key, estimate);
+        }
+        if (samples.incrementAndGet() >= sampleSize) {
+            age();
+        }
+    }
+
+    /**
+     * @return the hottest keys with their estimated number of recent accesses, the hottest first.
+     */
+    public List<Map.Entry<Object, Long>> hotKeys() {
+        return candidates
+            .entrySet()
+            .stream()
+            .sorted(Map.Entry.<Object, Long>comparingByValue().reversed())
+            .limit(hotKeys)
+            .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    private synchronized void track(Object key, long estimate) {
+        candidates.put(key, estimate);
+        if (candidates.size() > 2 * hotKeys) {
+            candidates
+                .entrySet()
+                .stream()
+                .min(Comparator.comparing(Map.Entry::getValue))
+                .ifPresent(coldest -> candidates.remove(coldest.getKey()));
+            threshold = candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+        }
+    }
+
+    private synchronized void age() {
+        if (samples.get() < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >>> 1);
+        }
+        candidates.replaceAll((key, estimate) -> estimate >>> 1);
+        threshold = threshold >>> 1;
+        samples.set(0);
+    }
+
+    private int index(int hash, int row) {
+        long spread = (hash + SEEDS[row]) * SEEDS[row];
+        return row * width + (int) ((spread ^ (spread >>> 32)) & (width - 1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.test.hero.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Opaque position used by keyset pagination: the sort of the listing, and the sort value and id of the last row
+ * returned. It is encoded as an URL-safe Base64 string so that clients do not depend on its layout.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private static final String VALUE_PREFIX = "=";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Long lastId;
+
+    private final String lastValue;
+
+    public KeysetCursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Decode a cursor previously returned by {@link #encode()}.
+     *
+     * @param cursor the encoded cursor.
+     * @return the decoded cursor.
+     * @throws InvalidCursorException if the cursor cannot be decoded.
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || !(parts[3].isEmpty() || parts[3].startsWith(VALUE_PREFIX))) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            String value = parts[3].isEmpty() ? null : parts[3].substring(VALUE_PREFIX.length());
+            return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]), value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    public String encode() {
+        String value = lastValue == null ? "" : VALUE_PREFIX + lastValue;
+        String raw = String.join(SEPARATOR, property, direction.name(), String.valueOf(lastId), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+}
@@ -0,0 +1,550 @@
+package com.test.hero.service;
+
+import com.test.hero.security.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Decorates a {@link Cache} with refresh-ahead, and with stale entries served while the database is slow or
+ * unreachable.
+ * <p>
+ * Entries are stamped with the time they were loaded. A lookup through {@link #get(Object, Callable)} serves an entry:
+ * <ul>
+ * <li>younger than the refresh-after duration as is;</li>
+ * <li>older than that, but still within its time to live, as is too, and reloads it in the background on the executor,
+ * so that lookups seldom wait for the database;</li>
+ * <li>past its time to live, but within the max stale window, only if its reload fails to reach the database or takes
+ * longer than the load timeout. The entry is then recorded as stale with {@link CacheStaleness}.</li>
+ * </ul>
+ * The other lookups only serve the entries within their time to live. The cache provider must keep the entries for
+ * their time to live plus the max stale window.
+ * <p>
+ * Concurrent loads of the same key share a single load, whether on a miss, run by the first lookup, or ahead of expiry,
+ * run on the executor. Each key has an eviction generation, read before a load: the result of a load is only cached if
+ * its key was not evicted since, as it may have read the row before the write which evicted it, and a lookup made
+ * after an eviction never waits for a load which started before.
+ * <p>
+ * The loads are timed, and the lookups counted by key in a {@link HotKeySketch}, to report the hottest keys. The
+ * lookups of the synthetic requests of the warm-up are not counted.
+ */
+public class RefreshAheadCache implements Cache {
+
+    public static final String METER_NAME = "cache.stale.served";
+    public static final String METER_DESCRIPTION = "Lookups served a stale entry as its reload failed or timed out.";
+    public static final String METER_CACHE_DIMENSION = "cache";
+    public static final String LOAD_METER_NAME = "cache.load";
+    public static final String LOAD_METER_DESCRIPTION = "Loads of cache entries from the database, on a miss or ahead of expiry.";
+
+    /**
+     * Number of eviction generations, shared by the keys with the same hash: an eviction of a key also keeps the
+     * running loads of the other keys of its stripe from being cached, which costs a reload but is never incorrect.
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private final Cache delegate;
+
+    private final long refreshAfterMillis;
+
+    private final long timeToLiveMillis;
+
+    private final long maxStaleMillis;
+
+    private final long loadTimeoutMillis;
+
+    private final Executor executor;
+
+    private final Counter staleServed;
+
+    private final Counter coalesced;
+
+    private final Timer loadTimer;
+
+    private final HotKeySketch hotKeySketch;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final AtomicLong clears = new AtomicLong();
+
+    /**
+     * The running loads, by key and eviction generation.
+     */
+    private final ConcurrentMap<Map.Entry<Object, Long>, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    public RefreshAheadCache(
+        Cache delegate,
+        Duration refreshAfter,
+        Duration timeToLive,
+        Duration maxStale,
+        Duration loadTimeout,
+        Executor executor,
+        MeterRegistry meterRegistry,
+        HotKeySketch hotKeySketch
+    ) {
+        this.delegate = delegate;
+        this.refreshAfterMillis = refreshAfter.toMillis();
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.maxStaleMillis = maxStale.toMillis();
+        this.loadTimeoutMillis = loadTimeout.toMillis();
+        this.executor = executor;
+        this.staleServed =
+            Counter
+                .builder(METER_NAME)
+                .description(METER_DESCRIPTION)
+                .tag(METER_CACHE_DIMENSION, delegate.getName())
+                .register(meterRegistry);
+        this.coalesced =
+            Counter
+                .builder(SingleFlight.METER_NAME)
+                .description(SingleFlight.METER_DESCRIPTION)
+                .tag(SingleFlight.METER_CACHE_DIMENSION, delegate.getName())
+                .register(meterRegistry);
+        this.loadTimer =
+            Timer
+                .builder(LOAD_METER_NAME)
+                .description(LOAD_METER_DESCRIPTION)
+                .tag(METER_CACHE_DIMENSION, delegate.getName())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.hotKeySketch = hotKeySketch;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        recordLookup(key);
+        Stamped stamped = fresh(delegate.get(key));
+        return stamped == null ? null : new SimpleValueWrapper(stamped.value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        recordLookup(key);
+        Stamped stamped = fresh(delegate.get(key));
+        if (stamped == null || stamped.value == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(stamped.value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stamped.value);
+        }
+        return (T) stamped.value;
+    }
+
+    /**
+     * Return the cached value, reloading it ahead of its expiry, or serving it stale if it cannot be reloaded.
+     * <p>
+     * Unlike the {@link Cache} contract, an unchecked exception thrown by the loader is rethrown as is.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        recordLookup(key);
+        Stamped stamped = stamped(delegate.get(key));
+        long age = stamped == null ? Long.MAX_VALUE : System.currentTimeMillis() - stamped.loadedAt;
+        if (age < refreshAfterMillis) {
+            return (T) stamped.value;
+        }
+        if (age < timeToLiveMillis) {
+            reload(key, valueLoader);
+            return (T) stamped.value;
+        }
+        if (age < timeToLiveMillis + maxStaleMillis) {
+            return (T) reloadOrServeStale(key, valueLoader, stamped, age);
+        }
+        return (T) loadOnce(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, new Stamped(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Stamped existing = stamped(delegate.putIfAbsent(key, new Stamped(value)));
+        return existing == null ? null : new SimpleValueWrapper(existing.value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        generations.incrementAndGet(stripe(key));
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        generations.incrementAndGet(stripe(key));
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        clears.incrementAndGet();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        clears.incrementAndGet();
+        return delegate.invalidate();
+    }
+
+    /**
+     * Bulk version of {@link #get(Object, Class)}, with a single call to the cache provider when it is a JCache.
+     * @param keys the keys to look up.
+     * @return the cached values within their time to live, by key; the keys which are not cached are missing.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        keys.forEach(this::recordLookup);
+        Map<Object, Object> values = new HashMap<>();
+        javax.cache.Cache<Object, Object> nativeCache = nativeCache();
+        if (nativeCache != null) {
+            nativeCache
+                .getAll(new HashSet<>(keys))
+                .forEach((key, value) -> {
+                    Stamped stamped = fresh(new SimpleValueWrapper(value));
+                    if (stamped != null) {
+                        values.put(key, stamped.value);
+                    }
+                });
+        } else {
+            for (Object key : keys) {
+                Stamped stamped = fresh(delegate.get(key));
+                if (stamped != null) {
+                    values.put(key, stamped.value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Bulk version of {@link #put(Object, Object)}, with a single call to the cache provider when it is a JCache.
+     * @param values the values to cache, by key.
+     */
+    public void putAll(Map<?, ?> values) {
+        javax.cache.Cache<Object, Object> nativeCache = nativeCache();
+        if (nativeCache != null) {
+            Map<Object, Object> stamped = new HashMap<>();
+            values.forEach((key, value) -> stamped.put(key, new Stamped(value)));
+            nativeCache.putAll(stamped);
+        } else {
+            values.forEach(this::put);
+        }
+    }
+
+    /**
+     * @return the entries within their time to live, along with the time they were loaded, or none if the cache is not
+     * backed by JCache.
+     */
+    public List<StampedEntry> entries() {
+        List<StampedEntry> entries = new ArrayList<>();
+        javax.cache.Cache<Object, Object> nativeCache = nativeCache();
+        if (nativeCache != null) {
+            for (javax.cache.Cache.Entry<Object, Object> entry : nativeCache) {
+                Stamped stamped = fresh(new SimpleValueWrapper(entry.getValue()));
+                if (stamped != null) {
+                    entries.add(new StampedEntry(entry.getKey(), stamped.value, stamped.loadedAt));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Cache a value loaded earlier, with the time it was loaded, unless it is past its time to live or its key was
+     * cached since.
+     * @param entry the entry to cache.
+     * @return whether the entry was cached.
+     */
+    public boolean restore(StampedEntry entry) {
+        if (System.currentTimeMillis() - entry.loadedAt >= timeToLiveMillis) {
+            return false;
+        }
+        return delegate.putIfAbsent(entry.key, new Stamped(entry.value, entry.loadedAt)) == null;
+    }
+
+    /**
+     * Time a load of entries made outside of this cache, which then caches them.
+     * @param loader the load.
+     * @return the result of the load.
+     */
+    public <T> T timeLoad(Supplier<T> loader) {
+        return loadTimer.record(loader);
+    }
+
+    /**
+     * @return the hottest keys looked up, with their estimated number of recent lookups, the hottest first.
+     */
+    public List<Map.Entry<Object, Long>> hotKeys() {
+        return hotKeySketch.hotKeys();
+    }
+
+    private void recordLookup(Object key) {
+        if (!SecurityUtils.isWarmUp()) {
+            hotKeySketch.record(key);
+        }
+    }
+
+    /**
+     * @return the JCache behind the cache, or {@code null} if the cache is not backed by JCache.
+     */
+    @SuppressWarnings("unchecked")
+    public javax.cache.Cache<Object, Object> nativeCache() {
+        if (delegate.getNativeCache() instanceof javax.cache.Cache) {
+            return (javax.cache.Cache<Object, Object>) delegate.getNativeCache();
+        }
+        return null;
+    }
+
+    private Object reloadOrServeStale(Object key, Callable<?> valueLoader, Stamped stamped, long age) {
+        try {
+            return reload(key, valueLoader).get(loadTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return serveStale(key, stamped, age, e);
+        } catch (TimeoutException e) {
+            return serveStale(key, stamped, age, e);
+        } catch (ExecutionException e) {
+            if (isUnavailable(e.getCause())) {
+                return serveStale(key, stamped, age, e.getCause());
+            }
+            throw failure(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * Load the entry missing from the cache, or wait for the load of the same key and generation already running.
+     */
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        long generation = generation(key);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loads.putIfAbsent(Map.entry(key, generation), load);
+        if (inFlight != null) {
+            coalesced.increment();
+            try {
+                return inFlight.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } catch (ExecutionException e) {
+                throw failure(key, valueLoader, e);
+            }
+        }
+        try {
+            Object value = load(key, generation, valueLoader);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(Map.entry(key, generation), load);
+        }
+    }
+
+    /**
+     * @return the failure of a load, as thrown by the loader.
+     */
+    private static RuntimeException failure(Object key, Callable<?> valueLoader, ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+        }
+        return new ValueRetrievalException(key, valueLoader, e.getCause());
+    }
+
+    private Object serveStale(Object key, Stamped stamped, long age, Throwable cause) {
+        log.debug("Serving stale entry {} of cache {}, aged {} ms: {}", key, getName(), age, cause.toString());
+        staleServed.increment();
+        CacheStaleness.record(Duration.ofMillis(age));
+        return stamped.value;
+    }
+
+    /**
+     * Reload the entry on the executor, unless it is already being loaded.
+     * @return the reload, which completes with the loaded value once it is cached.
+     */
+    private CompletableFuture<Object> reload(Object key, Callable<?> valueLoader) {
+        long generation = generation(key);
+        Map.Entry<Object, Long> flight = Map.entry(key, generation);
+        CompletableFuture<Object> reload = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loads.putIfAbsent(flight, reload);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    reload.complete(load(key, generation, valueLoader));
+                } catch (RuntimeException | Error e) {
+                    log.debug("Could not reload entry {} of cache {}: {}", key, getName(), e.toString());
+                    reload.completeExceptionally(e);
+                } finally {
+                    loads.remove(flight, reload);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loads.remove(flight, reload);
+            reload.completeExceptionally(e);
+        }
+        return reload;
+    }
+
+    /**
+     * Load the entry, and cache it unless its key was evicted since the given generation was read. A put which races
+     * with an eviction is undone, as the eviction may have run before it.
+     */
+    private <T> T load(Object key, long generation, Callable<T> valueLoader) {
+        T value;
+        long start = System.nanoTime();
+        try {
+            value = valueLoader.call();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (generation(key) == generation) {
+            put(key, value);
+            if (generation(key) != generation) {
+                delegate.evict(key);
+            }
+        }
+        return value;
+    }
+
+    private long generation(Object key) {
+        return generations.get(stripe(key)) + clears.get();
+    }
+
+    private static int stripe(Object key) {
+        return key.hashCode() & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * @return whether the failure of a load is caused by the database, or this cache, being unable to serve it.
+     */
+    private static boolean isUnavailable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (
+                cause instanceof DataAccessException ||
+                cause instanceof TransactionException ||
+                cause instanceof SQLException ||
+                cause instanceof RejectedExecutionException
+            ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Stamped fresh(ValueWrapper wrapper) {
+        Stamped stamped = stamped(wrapper);
+        if (stamped == null || System.currentTimeMillis() - stamped.loadedAt >= timeToLiveMillis) {
+            return null;
+        }
+        return stamped;
+    }
+
+    private static Stamped stamped(ValueWrapper wrapper) {
+        if (wrapper == null || !(wrapper.get() instanceof Stamped)) {
+            return null;
+        }
+        return (Stamped) wrapper.get();
+    }
+
+    private static final class Stamped implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+
+        private final long loadedAt;
+
+        private Stamped(Object value) {
+            this(value, System.currentTimeMillis());
+        }
+
+        private Stamped(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * A cached value, along with its key and the time it was loaded.
+     */
+    public static final class StampedEntry {
+
+        private final Object key;
+
+        private final Object value;
+
+        private final long loadedAt;
+
+        public StampedEntry(Object key, Object value, long loadedAt) {
+            this.key = key;
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * @return the time the value was loaded, in milliseconds since the epoch.
+         */
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.hero.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+
+/**
+ * Resolves the caches with refresh-ahead, for the {@code @Cacheable(sync = true)} methods which name it as their
+ * {@code cacheResolver}, and for the services which use them directly.
+ *
+ * @see RefreshAheadCache
+ */
+public class RefreshAheadCacheResolver implements CacheResolver {
+
+    private final Map<String, RefreshAheadCache> caches = new LinkedHashMap<>();
+
+    public RefreshAheadCacheResolver(Collection<RefreshAheadCache> caches) {
+        caches.forEach(cache -> this.caches.put(cache.getName(), cache));
+    }
+
+    /**
+     * @param name the name of the cache.
+     * @return the cache with refresh-ahead of that name.
+     * @throws IllegalArgumentException if that cache has no refresh-ahead.
+     */
+    public RefreshAheadCache getCache(String name) {
+        RefreshAheadCache cache = caches.get(name);
+        if (cache == null) {
+            throw new IllegalArgumentException("Cache " + name + " has no refresh-ahead, the caches with one are " + caches.keySet());
+        }
+        return cache;
+    }
+
+    /**
+     * @return all the caches with refresh-ahead.
+     */
+    public Collection<RefreshAheadCache> getCaches() {
+        return caches.values();
+    }
+
+    @Override
+    public Collection<RefreshAheadCache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        return context.getOperation().getCacheNames().stream().map(this::getCache).collect(Collectors.toList());
+    }
+}
@@ -5,7 +5,40 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Times the requests handled by the annotated controller method in a Micrometer timer, tagged by method, outcome and
+ * status, see {@link RequestTimingAspect}.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface RequestTiming {
-}
\ No newline at end of file
+    String DEFAULT_NAME = "request.timing";
+
+    /**
+     * @return the name of the timer.
+     */
+    String name() default DEFAULT_NAME;
+
+    /**
+     * @return the percentiles computed in memory and published with the timer, such as {@code 0.5} and {@code 0.99}.
+     * They cannot be aggregated across nodes.
+     */
+    double[] percentiles() default {};
+
+    /**
+     * @return the service level objectives, in milliseconds, published as the buckets of a histogram of the request
+     * times, which can be aggregated across nodes.
+     */
+    long[] slosMillis() default {};
+
+    /**
+     * @return the time above which a request is logged as slow, sampled; negative to use
+     * {@code application.request-timing.slow-threshold-millis}.
+     */
+    long slowThresholdMillis() default -1;
+
+    /**
+     * @return whether every request is logged with its time.
+     */
+    boolean logEachRequest() default false;
+}
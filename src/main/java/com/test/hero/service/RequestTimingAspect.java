@@ -1,28 +1,147 @@
 package com.test.hero.service;
 
+import com.test.hero.config.ApplicationProperties;
+import com.test.hero.security.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.springframework.stereotype.Component;
-
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.zalando.problem.ThrowableProblem;
 
+/**
+ * Records the time of the requests handled by the methods annotated with {@link RequestTiming} in a Micrometer
+ * {@link Timer}, tagged by:
+ * <ul>
+ * <li>{@value #METHOD_TAG}: the controller method, as {@code SuperHeroResource.getSuperHero};</li>
+ * <li>{@value #STATUS_TAG}: the status of the {@link ResponseEntity} returned, or of the {@link ResponseStatus} of the
+ * method, or of the exception thrown when it tells it, and {@code UNKNOWN} otherwise;</li>
+ * <li>{@value #OUTCOME_TAG}: the class of the status, as {@code SUCCESS} or {@code CLIENT_ERROR};</li>
+ * <li>{@value #EXCEPTION_TAG}: the simple name of the exception thrown, or {@code None}.</li>
+ * </ul>
+ * The requests slower than their threshold are logged, a sample of them only, so that a slow database does not flood
+ * the logs. The synthetic requests of the warm-up are not recorded.
+ */
 @Aspect
 @Component
 public class RequestTimingAspect {
 
+    public static final String METHOD_TAG = "method";
+    public static final String STATUS_TAG = "status";
+    public static final String OUTCOME_TAG = "outcome";
+    public static final String EXCEPTION_TAG = "exception";
+
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String NONE = "None";
+
     private final Logger log = LoggerFactory.getLogger(RequestTimingAspect.class);
-  
-    @Around("@annotation(RequestTiming)")
-    public Object measureRequestTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        long startTime = System.currentTimeMillis();
-        Object result = joinPoint.proceed();
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
-        log.info("Request Time : {} ms", duration);
-        return result;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationProperties.RequestTiming properties;
+
+    private final Map<Method, String> methodNames = new ConcurrentHashMap<>();
+
+    /**
+     * The timers by method, status and exception tags, built and registered on the first request only.
+     */
+    private final Map<List<Object>, Timer> timers = new ConcurrentHashMap<>();
+
+    public RequestTimingAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = applicationProperties.getRequestTiming();
+    }
+
+    @Around("@annotation(requestTiming)")
+    public Object measureRequestTime(ProceedingJoinPoint joinPoint, RequestTiming requestTiming) throws Throwable {
+        if (SecurityUtils.isWarmUp()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            record(requestTiming, ((MethodSignature) joinPoint.getSignature()).getMethod(), result, failure, System.nanoTime() - start);
+        }
     }
-}
 
+    private void record(RequestTiming requestTiming, Method method, Object result, Throwable failure, long nanos) {
+        String methodName = methodNames.computeIfAbsent(method, key -> key.getDeclaringClass().getSimpleName() + "." + key.getName());
+        Integer status = status(method, result, failure);
+        String statusTag = status == null ? UNKNOWN : status.toString();
+        String exceptionTag = failure == null ? NONE : failure.getClass().getSimpleName();
+        timers
+            .computeIfAbsent(
+                List.of(method, statusTag, exceptionTag),
+                key ->
+                    Timer
+                        .builder(requestTiming.name())
+                        .description("Time of the requests handled by the controller methods annotated with @RequestTiming.")
+                        .tag(METHOD_TAG, methodName)
+                        .tag(STATUS_TAG, statusTag)
+                        .tag(OUTCOME_TAG, status == null ? Outcome.UNKNOWN.name() : Outcome.forStatus(status).name())
+                        .tag(EXCEPTION_TAG, exceptionTag)
+                        .publishPercentiles(requestTiming.percentiles())
+                        .serviceLevelObjectives(
+                            Arrays.stream(requestTiming.slosMillis()).mapToObj(Duration::ofMillis).toArray(Duration[]::new)
+                        )
+                        .register(meterRegistry)
+            )
+            .record(nanos, TimeUnit.NANOSECONDS);
 
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (requestTiming.logEachRequest()) {
+            log.info("Request to {} : {} ms, status {}", methodName, millis, status);
+        }
+        long slowThresholdMillis = requestTiming.slowThresholdMillis() < 0
+            ? properties.getSlowThresholdMillis()
+            : requestTiming.slowThresholdMillis();
+        if (millis >= slowThresholdMillis && ThreadLocalRandom.current().nextDouble() < properties.getSlowLogSampleRate()) {
+            log.warn("Slow request to {} : {} ms, status {}", methodName, millis, status);
+        }
+    }
+
+    /**
+     * @return the status of the response, or {@code null} if it is left to the exception handlers.
+     */
+    private static Integer status(Method method, Object result, Throwable failure) {
+        if (failure != null) {
+            if (failure instanceof ThrowableProblem && ((ThrowableProblem) failure).getStatus() != null) {
+                return ((ThrowableProblem) failure).getStatus().getStatusCode();
+            }
+            if (failure instanceof ResponseStatusException) {
+                return ((ResponseStatusException) failure).getRawStatusCode();
+            }
+            ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(failure.getClass(), ResponseStatus.class);
+            return responseStatus == null ? null : responseStatus.code().value();
+        }
+        if (result instanceof ResponseEntity) {
+            return ((ResponseEntity<?>) result).getStatusCodeValue();
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(method, ResponseStatus.class);
+        return responseStatus == null ? 200 : responseStatus.code().value();
+    }
+}
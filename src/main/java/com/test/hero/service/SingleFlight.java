@@ -0,0 +1,76 @@
+package com.test.hero.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the concurrent loads of the same key: the first caller runs the load, and the callers which ask for the
+ * same key while it runs wait for its result instead of running their own.
+ * <p>
+ * Only concurrent loads are coalesced, nothing is kept once a load is done. A key must therefore identify what a
+ * caller is allowed to see: a cache key which changes on invalidation makes a caller arriving after a write start a
+ * new load, rather than join one which may have started before the write.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+final class SingleFlight<K, V> {
+
+    static final String METER_NAME = "cache.single-flight.coalesced";
+    static final String METER_DESCRIPTION = "Lookups which waited for the same load already run by another lookup.";
+    static final String METER_CACHE_DIMENSION = "cache";
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    private final Counter coalesced;
+
+    SingleFlight(String cacheName, MeterRegistry meterRegistry) {
+        this.coalesced =
+            Counter.builder(METER_NAME).description(METER_DESCRIPTION).tag(METER_CACHE_DIMENSION, cacheName).register(meterRegistry);
+    }
+
+    /**
+     * Run the load, or wait for the result of the load of the same key already running.
+     * @param key the key of the load.
+     * @param loader the load itself.
+     * @return the loaded value.
+     */
+    V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // The failure of the load is the failure of every lookup waiting for it
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
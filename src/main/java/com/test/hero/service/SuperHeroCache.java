@@ -0,0 +1,279 @@
+package com.test.hero.service;
+
+import com.test.hero.service.dto.SuperHeroDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache-aside of the {@link SuperHeroDTO} lookups by id, which never serves a value older than the last committed
+ * write.
+ * <p>
+ * Every id maps to a version, bumped when a write to that id is committed. Entries carry the version read before
+ * loading their value, and are only served while their version is current. Absent superHeroes are cached the same
+ * way, so that creating one is seen right away.
+ * <p>
+ * This relies on a load seeing all the writes committed before it starts, as a statement does under the
+ * {@code READ COMMITTED} isolation level. Inside a read-write transaction, which may hold uncommitted writes, the cache
+ * is bypassed.
+ * <p>
+ * Concurrent misses of the same id at the same version share a single load, see {@link SingleFlight}.
+ * <p>
+ * Entries are reloaded ahead of their expiry, and served stale while the database is slow or unreachable, see
+ * {@link RefreshAheadCache}. An entry whose version is not current is never served, not even stale.
+ */
+@Service
+public class SuperHeroCache {
+
+    public static final String SUPER_HERO_CACHE = "superHero";
+
+    /**
+     * Number of versions, shared by the ids with the same hash: a write to an id also makes the entries of the other
+     * ids of its stripe stale, which costs a reload but is never incorrect.
+     */
+    private static final int VERSION_STRIPES = 1024;
+
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final RefreshAheadCache cache;
+
+    private final SingleFlight<Map.Entry<Long, Long>, Entry> singleFlight;
+
+    public SuperHeroCache(RefreshAheadCacheResolver refreshAheadCacheResolver, MeterRegistry meterRegistry) {
+        this.cache = refreshAheadCacheResolver.getCache(SUPER_HERO_CACHE);
+        this.singleFlight = new SingleFlight<>(SUPER_HERO_CACHE, meterRegistry);
+    }
+
+    /**
+     * Return the cached superHero, or load it and cache it.
+     * @param id the id of the superHero.
+     * @param loader the lookup of the superHero in the database.
+     * @return the superHero, or an empty value if it does not exist.
+     */
+    public Optional<SuperHeroDTO> get(Long id, Supplier<Optional<SuperHeroDTO>> loader) {
+        if (inReadWriteTransaction()) {
+            return loader.get();
+        }
+        long version = versions.get(stripe(id));
+        Entry entry = cache.get(id, () -> load(id, loader));
+        if (entry.version == version) {
+            return Optional.ofNullable(entry.superHero);
+        }
+        // The entry was loaded before the last write to its id was invalidated, so it may not be served, not even stale
+        Entry loaded = cache.timeLoad(() -> load(id, loader));
+        // A write committed during the load may not be seen by it, so the result is then not cached. If the write is
+        // committed right after this check, the entry is evicted by the write, or not served as its version is stale.
+        if (versions.get(stripe(id)) == loaded.version) {
+            cache.put(id, loaded);
+        }
+        return Optional.ofNullable(loaded.superHero);
+    }
+
+    /**
+     * Return the cached superHeroes, and load all the others with a single call to the loader, before caching them.
+     * @param ids the ids of the superHeroes.
+     * @param loader the lookup in the database of the superHeroes missing from the cache, by id.
+     * @return the superHeroes which exist, by id.
+     */
+    public Map<Long, SuperHeroDTO> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, SuperHeroDTO>> loader) {
+        Set<Long> keys = new LinkedHashSet<>(ids);
+        if (inReadWriteTransaction()) {
+            return loader.apply(keys);
+        }
+        Map<Long, Long> versionsBeforeLoad = new HashMap<>();
+        keys.forEach(id -> versionsBeforeLoad.put(id, versions.get(stripe(id))));
+        Map<Object, Object> entries = cache.getAll(keys);
+        Map<Long, SuperHeroDTO> superHeroes = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long id : keys) {
+            Object entry = entries.get(id);
+            if (entry instanceof Entry && ((Entry) entry).version == versionsBeforeLoad.get(id)) {
+                if (((Entry) entry).superHero != null) {
+                    superHeroes.put(id, ((Entry) entry).superHero);
+                }
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return superHeroes;
+        }
+        Map<Long, SuperHeroDTO> loaded = cache.timeLoad(() -> loader.apply(misses));
+        // Same as in get(id, loader), for each id
+        Map<Object, Object> fresh = new HashMap<>();
+        for (Long id : misses) {
+            long version = versionsBeforeLoad.get(id);
+            if (versions.get(stripe(id)) == version) {
+                fresh.put(id, new Entry(version, loaded.get(id)));
+            }
+        }
+        cache.putAll(fresh);
+        superHeroes.putAll(loaded);
+        return superHeroes;
+    }
+
+    /**
+     * @return the entries of the cache within their time to live, keyed by id, with the {@link SuperHeroDTO}, or
+     * {@code null} for an absent superHero, as value.
+     */
+    public List<RefreshAheadCache.StampedEntry> entries() {
+        List<RefreshAheadCache.StampedEntry> entries = new ArrayList<>();
+        for (RefreshAheadCache.StampedEntry entry : cache.entries()) {
+            if (entry.getKey() instanceof Long && entry.getValue() instanceof Entry) {
+                entries.add(new RefreshAheadCache.StampedEntry(entry.getKey(), ((Entry) entry.getValue()).superHero, entry.getLoadedAt()));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Restore the entries of a snapshot of the cache, taken before a restart, keeping only the superHeroes still at the
+     * same version in the database, and the absent ones still absent.
+     * <p>
+     * The versions of the entries do not survive a restart, so the restored entries are given the current ones. Their
+     * values are those read from the database, the snapshot only tells which ids were cached, and since when.
+     * @param entries the entries of the snapshot, as returned by {@link #entries()}.
+     * @param loader the lookup in the database of the superHeroes, by id.
+     * @return the number of entries restored.
+     */
+    public int restore(Collection<RefreshAheadCache.StampedEntry> entries, Function<Set<Long>, Map<Long, SuperHeroDTO>> loader) {
+        Map<Long, Long> versionsBeforeLoad = new HashMap<>();
+        Map<Long, RefreshAheadCache.StampedEntry> snapshot = new HashMap<>();
+        for (RefreshAheadCache.StampedEntry entry : entries) {
+            if (entry.getKey() instanceof Long && (entry.getValue() == null || entry.getValue() instanceof SuperHeroDTO)) {
+                Long id = (Long) entry.getKey();
+                snapshot.put(id, entry);
+                versionsBeforeLoad.put(id, versions.get(stripe(id)));
+            }
+        }
+        if (snapshot.isEmpty()) {
+            return 0;
+        }
+        Map<Long, SuperHeroDTO> stored = loader.apply(snapshot.keySet());
+        int restored = 0;
+        for (RefreshAheadCache.StampedEntry entry : snapshot.values()) {
+            Long id = (Long) entry.getKey();
+            SuperHeroDTO superHero = (SuperHeroDTO) entry.getValue();
+            boolean unchanged = superHero == null
+                ? !stored.containsKey(id)
+                : stored.containsKey(id) && Objects.equals(superHero.getVersion(), stored.get(id).getVersion());
+            // Same as in get(id, loader): a write committed during the load may not be seen by it
+            long version = versionsBeforeLoad.get(id);
+            if (
+                unchanged &&
+                versions.get(stripe(id)) == version &&
+                cache.restore(new RefreshAheadCache.StampedEntry(id, new Entry(version, stored.get(id)), entry.getLoadedAt()))
+            ) {
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Make the cached superHero stale, once the current transaction, if any, is committed.
+     * @param id the id of the superHero.
+     */
+    public void invalidate(Long id) {
+        afterCommit(() -> {
+            versions.incrementAndGet(stripe(id));
+            cache.evict(id);
+        });
+    }
+
+    /**
+     * Make the cached superHeroes stale with a single bulk eviction, once the current transaction, if any, is committed.
+     * @param ids the ids of the superHeroes.
+     */
+    public void invalidateAll(Collection<Long> ids) {
+        afterCommit(() -> {
+            ids.forEach(id -> versions.incrementAndGet(stripe(id)));
+            javax.cache.Cache<Object, Object> nativeCache = cache.nativeCache();
+            if (nativeCache != null) {
+                nativeCache.removeAll(new HashSet<>(ids));
+            } else {
+                ids.forEach(cache::evict);
+            }
+        });
+    }
+
+    /**
+     * Make all the cached superHeroes stale, once the current transaction, if any, is committed.
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            for (int i = 0; i < VERSION_STRIPES; i++) {
+                versions.incrementAndGet(i);
+            }
+            cache.clear();
+        });
+    }
+
+    /**
+     * Load the superHero along with the version read before, sharing the load with the lookups which read the same
+     * version: a lookup which started after a write was invalidated must not be given the result of a load which may
+     * have started before.
+     */
+    private Entry load(Long id, Supplier<Optional<SuperHeroDTO>> loader) {
+        long version = versions.get(stripe(id));
+        return singleFlight.load(Map.entry(id, version), () -> new Entry(version, loader.get().orElse(null)));
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * A read-write transaction may hold uncommitted writes, which must neither be cached nor hidden by the cache.
+     */
+    private static boolean inReadWriteTransaction() {
+        return (
+            TransactionSynchronizationManager.isActualTransactionActive() &&
+            !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        );
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long version;
+
+        private final SuperHeroDTO superHero;
+
+        private Entry(long version, SuperHeroDTO superHero) {
+            this.version = version;
+            this.superHero = superHero;
+        }
+    }
+}
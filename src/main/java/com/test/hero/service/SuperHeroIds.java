@@ -0,0 +1,189 @@
+package com.test.hero.service;
+
+import com.test.hero.config.ApplicationProperties;
+import com.test.hero.repository.SuperHeroRepository;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bitmap of the ids of the existing superHeroes, which tells that a superHero does not exist without a query.
+ * <p>
+ * The bitmap is split in pages of {@value #PAGE_BITS} consecutive ids, allocated on first use: ids drawn from a
+ * sequence take about one bit each. It is loaded once the application is ready, and until then, or after a load
+ * failed, every id might exist.
+ * <p>
+ * It may only err on the side of existence. An id is therefore added as soon as its insert is issued, before it is
+ * committed, and is only removed once its delete is committed. A rolled back insert, or a bulk delete, leaves an id
+ * which no longer exists: it costs a query, as without the bitmap.
+ * <p>
+ * The rows inserted outside of the Hibernate sessions of this node, by the other nodes, SQL scripts or Liquibase, are
+ * only seen when the bitmap is loaded again: it is rebuilt every
+ * {@code application.cache.super-hero-ids.rebuild-interval-seconds}, and whenever the caches may have missed some
+ * writes of the other nodes. The superHeroes inserted by the other nodes are only added in between by the cache
+ * invalidation bus: without it, which is {@code application.cache.invalidation.enabled}, the bitmap is neither loaded
+ * nor used, and every id might exist.
+ */
+@Service
+public class SuperHeroIds {
+
+    private static final int PAGE_SHIFT = 16;
+
+    private static final int PAGE_BITS = 1 << PAGE_SHIFT;
+
+    private final Logger log = LoggerFactory.getLogger(SuperHeroIds.class);
+
+    private final SuperHeroRepository superHeroRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private volatile ConcurrentMap<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    /**
+     * The ids added since the last load started, whose inserts it may not have seen committed. They are added to the
+     * bitmap built by the next load as well.
+     */
+    private volatile ConcurrentMap<Long, AtomicLongArray> added = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    public SuperHeroIds(
+        SuperHeroRepository superHeroRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.superHeroRepository = superHeroRepository;
+        this.enabled = applicationProperties.getCache().getInvalidation().isEnabled();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Build a new bitmap of the ids in the database, which replaces the current one once complete. The ids added
+     * meanwhile are added to both, so that none is missed. A failure is logged, and every id might exist until the
+     * next load succeeds.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        initialDelayString = "${application.cache.super-hero-ids.rebuild-interval-seconds:600}",
+        fixedDelayString = "${application.cache.super-hero-ids.rebuild-interval-seconds:600}",
+        timeUnit = TimeUnit.SECONDS
+    )
+    public synchronized void load() {
+        if (!enabled) {
+            return;
+        }
+        ConcurrentMap<Long, AtomicLongArray> previouslyAdded = added;
+        added = new ConcurrentHashMap<>();
+        try {
+            ConcurrentMap<Long, AtomicLongArray> loading = new ConcurrentHashMap<>();
+            AtomicLong count = new AtomicLong();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Long> ids = superHeroRepository.streamAllIds()) {
+                    ids.forEach(id -> {
+                        set(loading, id);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            or(loading, previouslyAdded);
+            pages = loading;
+            or(loading, added);
+            loaded = true;
+            log.debug("Loaded the ids of {} superHeroes in {} pages", count, loading.size());
+        } catch (RuntimeException e) {
+            or(added, previouslyAdded);
+            loaded = false;
+            log.warn("Could not load the ids of the superHeroes, every id might exist until they are: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param id the id of the superHero.
+     * @return {@code false} if the superHero does not exist, {@code true} if it might.
+     */
+    public boolean mightExist(Long id) {
+        if (!loaded) {
+            return true;
+        }
+        AtomicLongArray page = pages.get(page(id));
+        return page != null && (page.get(word(id)) & bit(id)) != 0;
+    }
+
+    /**
+     * Add the id of a superHero being inserted.
+     * @param id the id of the superHero.
+     */
+    public void add(Long id) {
+        if (!enabled) {
+            return;
+        }
+        // Added to the ids added first, as removed from them last: a load swapping the bitmaps in between then adds
+        // the id to the new bitmap
+        set(added, id);
+        set(pages, id);
+    }
+
+    /**
+     * Remove the id of a superHero whose delete is committed.
+     * @param id the id of the superHero.
+     */
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        clear(added, id);
+        clear(pages, id);
+    }
+
+    private static void set(Map<Long, AtomicLongArray> pages, long id) {
+        pages
+            .computeIfAbsent(page(id), key -> new AtomicLongArray(PAGE_BITS / Long.SIZE))
+            .accumulateAndGet(word(id), bit(id), (a, b) -> a | b);
+    }
+
+    private static void clear(Map<Long, AtomicLongArray> pages, long id) {
+        AtomicLongArray page = pages.get(page(id));
+        if (page != null) {
+            page.accumulateAndGet(word(id), ~bit(id), (a, b) -> a & b);
+        }
+    }
+
+    private static void or(Map<Long, AtomicLongArray> pages, Map<Long, AtomicLongArray> other) {
+        other.forEach((key, page) -> {
+            AtomicLongArray target = pages.computeIfAbsent(key, k -> new AtomicLongArray(PAGE_BITS / Long.SIZE));
+            for (int i = 0; i < page.length(); i++) {
+                long word = page.get(i);
+                if (word != 0) {
+                    target.accumulateAndGet(i, word, (a, b) -> a | b);
+                }
+            }
+        });
+    }
+
+    private static long page(long id) {
+        return id >> PAGE_SHIFT;
+    }
+
+    private static int word(long id) {
+        return (int) (id & (PAGE_BITS - 1)) >>> 6;
+    }
+
+    private static long bit(long id) {
+        return 1L << id;
+    }
+}
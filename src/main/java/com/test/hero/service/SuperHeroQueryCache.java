@@ -0,0 +1,189 @@
+package com.test.hero.service;
+
+import com.test.hero.service.criteria.SuperHeroCriteria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of the results of the {@link SuperHeroCriteria} queries, keyed by the criteria and the pageable.
+ * <p>
+ * Every key also holds the current generation, which {@link #invalidate()} bumps when a write is committed: results
+ * read before a write are then never served again, and are left for the cache to expire. Inside a read-write
+ * transaction, which may hold uncommitted writes, the cache is bypassed.
+ * <p>
+ * Concurrent misses of the same key share a single query, see {@link SingleFlight}.
+ */
+@Service
+public class SuperHeroQueryCache {
+
+    public static final String SUPER_HEROES_BY_CRITERIA_CACHE = "superHeroesByCriteria";
+
+    public static final String METER_NAME = "cache.super-heroes-by-criteria.requests";
+    public static final String METER_DESCRIPTION = "Lookups in the super heroes by criteria query result cache.";
+    public static final String METER_QUERY_DIMENSION = "query";
+    public static final String METER_RESULT_DIMENSION = "result";
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    private final CacheManager cacheManager;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SingleFlight<Key, Object> singleFlight;
+
+    public SuperHeroQueryCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.singleFlight = new SingleFlight<>(SUPER_HEROES_BY_CRITERIA_CACHE, meterRegistry);
+    }
+
+    /**
+     * Return the cached result of the query, or run it and cache its result.
+     * @param query the name of the query, which tells apart queries taking the same criteria.
+     * @param criteria the criteria of the query.
+     * @param pageable the pageable of the query, or {@code null} if it has none.
+     * @param loader the query itself.
+     * @param <T> the result type, which must be serializable.
+     * @return the result of the query.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, SuperHeroCriteria criteria, Pageable pageable, Supplier<T> loader) {
+        if (inReadWriteTransaction()) {
+            return loader.get();
+        }
+        // The generation is read before running the query, so that a result read before a commit is cached under a
+        // generation which the commit makes obsolete
+        Key key = new Key(generation.get(), query, criteria == null ? null : criteria.copy(), pageable);
+        Cache cache = cacheManager.getCache(SUPER_HEROES_BY_CRITERIA_CACHE);
+        Cache.ValueWrapper cached = cache.get(key);
+        Counters queryCounters = counters.computeIfAbsent(query, this::registerCounters);
+        if (cached != null) {
+            queryCounters.hits.increment();
+            return (T) cached.get();
+        }
+        queryCounters.misses.increment();
+        // The key holds the generation, so a lookup which started after a write never shares a query started before
+        return (T) singleFlight.load(
+            key,
+            () -> {
+                T result = loader.get();
+                cache.put(key, result);
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Make all the cached results obsolete, once the current transaction, if any, is committed.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        generation.incrementAndGet();
+                    }
+                }
+            );
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * A read-write transaction may hold uncommitted writes, which must neither be cached nor hidden by the cache.
+     */
+    private static boolean inReadWriteTransaction() {
+        return (
+            TransactionSynchronizationManager.isActualTransactionActive() &&
+            !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        );
+    }
+
+    private Counters registerCounters(String query) {
+        return new Counters(counter(query, "hit"), counter(query, "miss"));
+    }
+
+    private Counter counter(String query, String result) {
+        return Counter
+            .builder(METER_NAME)
+            .description(METER_DESCRIPTION)
+            .tag(METER_QUERY_DIMENSION, query)
+            .tag(METER_RESULT_DIMENSION, result)
+            .register(meterRegistry);
+    }
+
+    private static final class Counters {
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private Counters(Counter hits, Counter misses) {
+            this.hits = hits;
+            this.misses = misses;
+        }
+    }
+
+    private static final class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long generation;
+
+        private final String query;
+
+        private final SuperHeroCriteria criteria;
+
+        private final Pageable pageable;
+
+        private Key(long generation, String query, SuperHeroCriteria criteria, Pageable pageable) {
+            this.generation = generation;
+            this.query = query;
+            this.criteria = criteria;
+            this.pageable = pageable;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return (
+                generation == other.generation &&
+                query.equals(other.query) &&
+                Objects.equals(criteria, other.criteria) &&
+                Objects.equals(pageable, other.pageable)
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(generation, query, criteria, pageable);
+        }
+
+        @Override
+        public String toString() {
+            return "Key{generation=" + generation + ", query=" + query + ", criteria=" + criteria + ", pageable=" + pageable + "}";
+        }
+    }
+}
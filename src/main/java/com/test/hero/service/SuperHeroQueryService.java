@@ -1,5 +1,6 @@
 package com.test.hero.service;
 
+import com.test.hero.config.ApplicationProperties;
 import com.test.hero.domain.*; // for static metamodels
 import com.test.hero.domain.SuperHero;
 import com.test.hero.repository.SuperHeroRepository;
@@ -7,11 +8,15 @@ import com.test.hero.service.criteria.SuperHeroCriteria;
 import com.test.hero.service.dto.SuperHeroDTO;
 import com.test.hero.service.mapper.SuperHeroMapper;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.metamodel.SingularAttribute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,7 +26,7 @@ import tech.jhipster.service.QueryService;
  * Service for executing complex queries for {@link SuperHero} entities in the database.
  * The main input is a {@link SuperHeroCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link SuperHeroDTO} or a {@link Page} of {@link SuperHeroDTO} which fulfills the criteria.
+ * It returns a {@link List}, a {@link Page}, a {@link Slice} or a {@link KeysetPage} of {@link SuperHeroDTO} which fulfills the criteria.
  */
 @Service
 @Transactional(readOnly = true)
@@ -33,13 +38,25 @@ public class SuperHeroQueryService extends QueryService<SuperHero> {
 
     private final SuperHeroMapper superHeroMapper;
 
-    public SuperHeroQueryService(SuperHeroRepository superHeroRepository, SuperHeroMapper superHeroMapper) {
+    private final ApplicationProperties applicationProperties;
+
+    private final SuperHeroQueryCache superHeroQueryCache;
+
+    public SuperHeroQueryService(
+        SuperHeroRepository superHeroRepository,
+        SuperHeroMapper superHeroMapper,
+        ApplicationProperties applicationProperties,
+        SuperHeroQueryCache superHeroQueryCache
+    ) {
         this.superHeroRepository = superHeroRepository;
         this.superHeroMapper = superHeroMapper;
+        this.applicationProperties = applicationProperties;
+        this.superHeroQueryCache = superHeroQueryCache;
     }
 
     /**
      * Return a {@link List} of {@link SuperHeroDTO} which matches the criteria from the database.
+     * The DTOs are selected straight from the columns, without loading the entities.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the matching entities.
      */
@@ -47,11 +64,31 @@ public class SuperHeroQueryService extends QueryService<SuperHero> {
     public List<SuperHeroDTO> findByCriteria(SuperHeroCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<SuperHero> specification = createSpecification(criteria);
-        return superHeroMapper.toDto(superHeroRepository.findAll(specification));
+        return superHeroRepository.findAllProjected(specification, SuperHeroDTO.class, applicationProperties.getExport().getFetchSize());
+    }
+
+    /**
+     * Pass each {@link SuperHeroDTO} which matches the criteria from the database to the consumer, ordered by id.
+     * Entities are read through a forward-only cursor and are not kept in memory, so this is suitable for exporting
+     * any number of entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(SuperHeroCriteria criteria, Consumer<SuperHeroDTO> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        final Specification<SuperHero> specification = createSpecification(criteria);
+        superHeroRepository.scrollAll(
+            specification,
+            applicationProperties.getExport().getFetchSize(),
+            superHero -> consumer.accept(superHeroMapper.toDto(superHero))
+        );
     }
 
     /**
      * Return a {@link Page} of {@link SuperHeroDTO} which matches the criteria from the database.
+     * The DTOs are selected straight from the columns, without loading the entities, and the result is cached until the
+     * next write, see {@link SuperHeroQueryCache}.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -59,20 +96,79 @@ public class SuperHeroQueryService extends QueryService<SuperHero> {
     @Transactional(readOnly = true)
     public Page<SuperHeroDTO> findByCriteria(SuperHeroCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
+        return superHeroQueryCache.get("page", criteria, page, () ->
+            superHeroRepository.findAllWithTotalCount(createSpecification(criteria), page, SuperHeroDTO.class)
+        );
+    }
+
+    /**
+     * Return a {@link Slice} of {@link SuperHeroDTO} which matches the criteria from the database, without counting
+     * the total number of matching entities. The DTOs are selected straight from the columns, without loading the entities,
+     * and the result is cached until the next write, see {@link SuperHeroQueryCache}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<SuperHeroDTO> findSliceByCriteria(SuperHeroCriteria criteria, Pageable page) {
+        log.debug("find slice by criteria : {}, page: {}", criteria, page);
+        return superHeroQueryCache.get("slice", criteria, page, () ->
+            superHeroRepository.findAllAsSlice(createSpecification(criteria), page, SuperHeroDTO.class)
+        );
+    }
+
+    /**
+     * Return a {@link KeysetPage} of {@link SuperHeroDTO} which matches the criteria from the database, using keyset
+     * pagination instead of an offset: the cost of a page does not depend on its depth, and no count query is run.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The cursor returned with the previous page, or an empty value to get the first page.
+     * @param page The page size and, for the first page only, the sort. The sort of later pages comes from the cursor.
+     * @return the matching entities.
+     * @throws InvalidCursorException if the cursor or the sort property is not supported.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<SuperHeroDTO> findByCriteria(SuperHeroCriteria criteria, String after, Pageable page) {
+        log.debug("find by criteria : {}, after: {}, page: {}", criteria, after, page);
+        KeysetCursor cursor;
+        if (after == null || after.isEmpty()) {
+            Sort.Order order = page.getSort().stream().findFirst().orElse(Sort.Order.asc(SuperHero_.ID));
+            cursor = new KeysetCursor(order.getProperty(), order.getDirection(), null, null);
+        } else {
+            cursor = KeysetCursor.decode(after);
+        }
+        SingularAttribute<SuperHero, ? extends Comparable<?>> sortAttribute = keysetAttribute(cursor.getProperty());
         final Specification<SuperHero> specification = createSpecification(criteria);
-        return superHeroRepository.findAll(specification, page).map(superHeroMapper::toDto);
+        // Fetch one extra row to know whether there is a next page
+        List<SuperHero> superHeroes = superHeroRepository.findAllAfter(
+            specification,
+            sortAttribute,
+            cursor.getDirection(),
+            parseKeysetValue(sortAttribute, cursor.getLastValue()),
+            cursor.getLastId(),
+            page.getPageSize() + 1
+        );
+        String nextCursor = null;
+        if (superHeroes.size() > page.getPageSize()) {
+            superHeroes = superHeroes.subList(0, page.getPageSize());
+            SuperHero last = superHeroes.get(superHeroes.size() - 1);
+            Object lastValue = keysetValue(last, cursor.getProperty());
+            nextCursor =
+                new KeysetCursor(cursor.getProperty(), cursor.getDirection(), last.getId(), lastValue == null ? null : lastValue.toString())
+                    .encode();
+        }
+        return new KeysetPage<>(superHeroMapper.toDto(superHeroes), nextCursor);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return the number of matching entities in the database. The result is cached until the next write, see
+     * {@link SuperHeroQueryCache}.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
     @Transactional(readOnly = true)
     public long countByCriteria(SuperHeroCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<SuperHero> specification = createSpecification(criteria);
-        return superHeroRepository.count(specification);
+        return superHeroQueryCache.get("count", criteria, null, () -> superHeroRepository.count(createSpecification(criteria)));
     }
 
     /**
@@ -102,4 +198,49 @@ public class SuperHeroQueryService extends QueryService<SuperHero> {
         }
         return specification;
     }
+
+    private static SingularAttribute<SuperHero, ? extends Comparable<?>> keysetAttribute(String property) {
+        switch (property) {
+            case SuperHero_.ID:
+                return SuperHero_.id;
+            case SuperHero_.NAME:
+                return SuperHero_.name;
+            case SuperHero_.AGE:
+                return SuperHero_.age;
+            case SuperHero_.SUPERPOWER:
+                return SuperHero_.superpower;
+            default:
+                throw new InvalidCursorException("Unsupported sort property for keyset pagination: " + property);
+        }
+    }
+
+    private static Object keysetValue(SuperHero superHero, String property) {
+        switch (property) {
+            case SuperHero_.NAME:
+                return superHero.getName();
+            case SuperHero_.AGE:
+                return superHero.getAge();
+            case SuperHero_.SUPERPOWER:
+                return superHero.getSuperpower();
+            default:
+                return superHero.getId();
+        }
+    }
+
+    private static Comparable<?> parseKeysetValue(SingularAttribute<SuperHero, ?> attribute, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (Long.class.equals(attribute.getJavaType())) {
+                return Long.valueOf(value);
+            }
+            if (Integer.class.equals(attribute.getJavaType())) {
+                return Integer.valueOf(value);
+            }
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        return value;
+    }
 }
@@ -1,16 +1,29 @@
 package com.test.hero.service;
 
+import com.test.hero.config.ApplicationProperties;
 import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.SuperHero_;
 import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.service.criteria.SuperHeroCriteria;
 import com.test.hero.service.dto.SuperHeroDTO;
 import com.test.hero.service.mapper.SuperHeroMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service Implementation for managing {@link SuperHero}.
@@ -19,15 +32,52 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class SuperHeroService {
 
+    /**
+     * Number of superHeroes affected by a bulk statement past which the whole cache is cleared, instead of holding
+     * their ids in memory and publishing an invalidation for each of them.
+     */
+    static final int MAX_EVICTED_IDS = 1000;
+
     private final Logger log = LoggerFactory.getLogger(SuperHeroService.class);
 
     private final SuperHeroRepository superHeroRepository;
 
     private final SuperHeroMapper superHeroMapper;
 
-    public SuperHeroService(SuperHeroRepository superHeroRepository, SuperHeroMapper superHeroMapper) {
+    private final SuperHeroCache superHeroCache;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final SuperHeroQueryService superHeroQueryService;
+
+    private final SuperHeroQueryCache superHeroQueryCache;
+
+    private final SuperHeroIds superHeroIds;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public SuperHeroService(
+        SuperHeroRepository superHeroRepository,
+        SuperHeroMapper superHeroMapper,
+        SuperHeroCache superHeroCache,
+        ApplicationProperties applicationProperties,
+        TransactionTemplate transactionTemplate,
+        SuperHeroQueryService superHeroQueryService,
+        SuperHeroQueryCache superHeroQueryCache,
+        SuperHeroIds superHeroIds,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
         this.superHeroRepository = superHeroRepository;
         this.superHeroMapper = superHeroMapper;
+        this.superHeroCache = superHeroCache;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.superHeroQueryService = superHeroQueryService;
+        this.superHeroQueryCache = superHeroQueryCache;
+        this.superHeroIds = superHeroIds;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     /**
@@ -40,45 +90,97 @@ public class SuperHeroService {
         log.debug("Request to save SuperHero : {}", superHeroDTO);
         SuperHero superHero = superHeroMapper.toEntity(superHeroDTO);
         superHero = superHeroRepository.save(superHero);
+        // The id may have been looked up while the superHero did not exist
+        superHeroCache.invalidate(superHero.getId());
+        superHeroQueryCache.invalidate();
+        cacheInvalidationBus.publish(SuperHeroCache.SUPER_HERO_CACHE, superHero.getId());
         return superHeroMapper.toDto(superHero);
     }
 
     /**
-     * Update a superHero.
+     * Save a batch of new superHeroes.
+     * <p>
+     * The superHeroes are saved in chunks of {@code application.batch.chunk-size}, each chunk in its own transaction,
+     * so that a large batch neither holds a single long transaction nor keeps every entity in the persistence context.
+     * If a chunk fails, the previous chunks stay committed.
+     *
+     * @param superHeroDTOs the entities to save.
+     * @return the ids of the persisted entities, in the same order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Long> saveAll(List<SuperHeroDTO> superHeroDTOs) {
+        log.debug("Request to save {} SuperHeroes", superHeroDTOs.size());
+        int chunkSize = applicationProperties.getBatch().getChunkSize();
+        List<Long> ids = new ArrayList<>(superHeroDTOs.size());
+        for (int from = 0; from < superHeroDTOs.size(); from += chunkSize) {
+            List<SuperHeroDTO> chunk = superHeroDTOs.subList(from, Math.min(from + chunkSize, superHeroDTOs.size()));
+            ids.addAll(
+                Objects.requireNonNull(
+                    transactionTemplate.execute(status -> {
+                        // Each chunk is committed on its own, so each one invalidates the query cache
+                        superHeroQueryCache.invalidate();
+                        List<Long> chunkIds = superHeroRepository
+                            .saveAll(superHeroMapper.toEntity(chunk))
+                            .stream()
+                            .map(SuperHero::getId)
+                            .collect(Collectors.toList());
+                        superHeroCache.invalidateAll(chunkIds);
+                        cacheInvalidationBus.publishAll(SuperHeroCache.SUPER_HERO_CACHE, chunkIds);
+                        return chunkIds;
+                    })
+                )
+            );
+        }
+        return ids;
+    }
+
+    /**
+     * Update a superHero, with a single statement.
+     * <p>
+     * If the superHeroDTO has a version, the update only applies to that version of the entity.
      *
      * @param superHeroDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or an empty value if it does not exist.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the entity is not at the given version anymore.
      */
-    public SuperHeroDTO update(SuperHeroDTO superHeroDTO) {
+    public Optional<SuperHeroDTO> update(SuperHeroDTO superHeroDTO) {
         log.debug("Request to update SuperHero : {}", superHeroDTO);
-        SuperHero superHero = superHeroMapper.toEntity(superHeroDTO);
-        superHero = superHeroRepository.save(superHero);
-        Objects.requireNonNull(cacheManager.getCache("superHero")).evict(superHero.id);
-        return superHeroMapper.toDto(superHero);
+        return updateById(superHeroDTO, false);
     }
 
     /**
-     * Partially update a superHero.
+     * Partially update a superHero, with a single statement which only sets the non-null fields.
+     * <p>
+     * If the superHeroDTO has a version, the update only applies to that version of the entity.
      *
      * @param superHeroDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or an empty value if it does not exist.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the entity is not at the given version anymore.
      */
     public Optional<SuperHeroDTO> partialUpdate(SuperHeroDTO superHeroDTO) {
         log.debug("Request to partially update SuperHero : {}", superHeroDTO);
+        return updateById(superHeroDTO, true);
+    }
 
-        return superHeroRepository
-            .findById(superHeroDTO.getId())
-            .map(existingSuperHero -> {
-                superHeroMapper.partialUpdate(existingSuperHero, superHeroDTO);
-
-                return existingSuperHero;
-            })
-            .map(superHero -> {
-                superHero = superHeroRepository.save(superHero)
-                Objects.requireNonNull(cacheManager.getCache("superHero")).evict(superHero.id);
-                return superHero;
-            })
-            .map(superHeroMapper::toDto);
+    private Optional<SuperHeroDTO> updateById(SuperHeroDTO superHeroDTO, boolean partial) {
+        Long id = superHeroDTO.getId();
+        Optional<SuperHeroDTO> result = superHeroRepository.updateById(
+            superHeroMapper.toEntity(superHeroDTO),
+            partial,
+            superHeroDTO.getVersion(),
+            SuperHeroDTO.class
+        );
+        if (result.isEmpty()) {
+            // Only looked up when the update failed, to tell a missing superHero from a stale version
+            if (superHeroDTO.getVersion() != null && superHeroIds.mightExist(id) && superHeroRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(SuperHero.class, id);
+            }
+            return result;
+        }
+        superHeroCache.invalidate(id);
+        superHeroQueryCache.invalidate();
+        cacheInvalidationBus.publish(SuperHeroCache.SUPER_HERO_CACHE, id);
+        return result;
     }
 
     /**
@@ -90,20 +192,46 @@ public class SuperHeroService {
     @Transactional(readOnly = true)
     public Page<SuperHeroDTO> findAll(Pageable pageable) {
         log.debug("Request to get all SuperHeroes");
-        return superHeroRepository.findAll(pageable).map(superHeroMapper::toDto);
+        return superHeroRepository.findAllWithTotalCount(null, pageable, SuperHeroDTO.class);
     }
 
     /**
      * Get one superHero by id.
+     * <p>
+     * No transaction is started, so that no connection is taken when the superHero is served from the cache, including
+     * while the database is unreachable; the repository lookup runs in its own. The ids which do not exist are
+     * answered from {@link SuperHeroIds}, without a lookup.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
-    @Cacheable("superHero")
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<SuperHeroDTO> findOne(Long id) {
         log.debug("Request to get SuperHero : {}", id);
-        return superHeroRepository.findById(id).map(superHeroMapper::toDto);
+        if (!superHeroIds.mightExist(id)) {
+            return Optional.empty();
+        }
+        return superHeroCache.get(id, () -> superHeroRepository.findById(id).map(superHeroMapper::toDto));
+    }
+
+    /**
+     * Get the superHeroes with the given ids, from the cache or else with a single query for all the cache misses.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities which exist, in the order of their first id in {@code ids}.
+     */
+    @Transactional(readOnly = true)
+    public List<SuperHeroDTO> findAllById(List<Long> ids) {
+        log.debug("Request to get SuperHeroes : {}", ids);
+        Map<Long, SuperHeroDTO> superHeroes = superHeroCache.getAll(
+            ids.stream().filter(superHeroIds::mightExist).collect(Collectors.toList()),
+            misses ->
+                superHeroRepository
+                    .findAllProjected((root, query, cb) -> root.get(SuperHero_.id).in(misses), SuperHeroDTO.class, misses.size())
+                    .stream()
+                    .collect(Collectors.toMap(SuperHeroDTO::getId, Function.identity()))
+        );
+        return ids.stream().distinct().map(superHeroes::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     /**
@@ -114,5 +242,60 @@ public class SuperHeroService {
     public void delete(Long id) {
         log.debug("Request to delete SuperHero : {}", id);
         superHeroRepository.deleteById(id);
+        superHeroCache.invalidate(id);
+        superHeroQueryCache.invalidate();
+        cacheInvalidationBus.publish(SuperHeroCache.SUPER_HERO_CACHE, id);
+    }
+
+    /**
+     * Delete all the superHeroes matching the criteria, with a single statement.
+     *
+     * @param criteria the criteria which the entities to delete should match.
+     * @return the number of deleted entities.
+     */
+    public int deleteByCriteria(SuperHeroCriteria criteria) {
+        log.debug("Request to delete SuperHeroes by criteria : {}", criteria);
+        Specification<SuperHero> specification = superHeroQueryService.createSpecification(criteria);
+        List<Long> ids = superHeroRepository.findAllIds(specification, MAX_EVICTED_IDS + 1);
+        int deleted = superHeroRepository.deleteAllMatching(specification);
+        evictAll(ids, deleted);
+        superHeroQueryCache.invalidate();
+        return deleted;
+    }
+
+    /**
+     * Partially update all the superHeroes matching the criteria, with a single statement: the non-null fields of the
+     * given superHero are set on every matching entity.
+     *
+     * @param criteria the criteria which the entities to update should match.
+     * @param superHeroDTO the values to set.
+     * @return the number of updated entities.
+     */
+    public int partialUpdateByCriteria(SuperHeroCriteria criteria, SuperHeroDTO superHeroDTO) {
+        log.debug("Request to partially update SuperHeroes by criteria : {}, {}", criteria, superHeroDTO);
+        Specification<SuperHero> specification = superHeroQueryService.createSpecification(criteria);
+        List<Long> ids = superHeroRepository.findAllIds(specification, MAX_EVICTED_IDS + 1);
+        int updated = superHeroRepository.updateAllMatching(specification, superHeroMapper.toEntity(superHeroDTO));
+        evictAll(ids, updated);
+        superHeroQueryCache.invalidate();
+        return updated;
+    }
+
+    /**
+     * Invalidate the given superHeroes in the cache with a single bulk eviction, on this node and on the others.
+     *
+     * @param ids the ids selected before running a bulk statement, at most {@link #MAX_EVICTED_IDS} of them, plus one.
+     * @param affectedRows the number of rows affected by the bulk statement.
+     */
+    private void evictAll(List<Long> ids, int affectedRows) {
+        // Past the limit, the ids are not all known. Otherwise, rows may have changed between the selection of the ids
+        // and the bulk statement, and the ids cannot be trusted
+        if (ids.size() > MAX_EVICTED_IDS || ids.size() != affectedRows) {
+            superHeroCache.invalidateAll();
+            cacheInvalidationBus.publishClear(SuperHeroCache.SUPER_HERO_CACHE);
+        } else {
+            superHeroCache.invalidateAll(ids);
+            cacheInvalidationBus.publishAll(SuperHeroCache.SUPER_HERO_CACHE, ids);
+        }
     }
 }
@@ -15,12 +15,13 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -39,18 +40,22 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    private final CacheManager cacheManager;
+    private final RefreshAheadCacheResolver refreshAheadCacheResolver;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        RefreshAheadCacheResolver refreshAheadCacheResolver,
+        CacheInvalidationBus cacheInvalidationBus
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
-        this.cacheManager = cacheManager;
+        this.refreshAheadCacheResolver = refreshAheadCacheResolver;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -282,11 +287,17 @@ public class UserService {
     }
 
     @Transactional(readOnly = true)
+    public Slice<UserDTO> getPublicUsersSlice(Pageable pageable) {
+        return userRepository.findSliceByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+    }
+
+    // The cached users are served without taking a connection, including while the database is unreachable
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
         return userRepository.findOneWithAuthoritiesByLogin(login);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> getUserWithAuthorities() {
         return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
     }
@@ -317,9 +328,16 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        // Evicted through the refresh-ahead cache, so that a load started before the write is not cached after it
+        refreshAheadCacheResolver.getCache(UserRepository.USERS_BY_LOGIN_CACHE).evict(user.getLogin());
+        cacheInvalidationBus.publish(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin());
         if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            refreshAheadCacheResolver.getCache(UserRepository.USERS_BY_EMAIL_CACHE).evict(user.getEmail());
+            cacheInvalidationBus.publish(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail());
+        }
+        if (user.getId() != null) {
+            // The second level cache of Hibernate is only kept up to date on this node
+            cacheInvalidationBus.publish(User.class.getName(), user.getId());
         }
     }
 }
@@ -17,6 +17,21 @@ public class SuperHeroDTO implements Serializable {
 
     private String superpower;
 
+    private Long version;
+
+    public SuperHeroDTO() {}
+
+    /**
+     * Constructor used by the criteria queries which select straight into this DTO.
+     */
+    public SuperHeroDTO(Long id, String name, Integer age, String superpower, Long version) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.superpower = superpower;
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -49,6 +64,14 @@ public class SuperHeroDTO implements Serializable {
         this.superpower = superpower;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -78,6 +101,7 @@ public class SuperHeroDTO implements Serializable {
             ", name='" + getName() + "'" +
             ", age=" + getAge() +
             ", superpower='" + getSuperpower() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -8,4 +8,18 @@ import org.mapstruct.*;
  * Mapper for the entity {@link SuperHero} and its DTO {@link SuperHeroDTO}.
  */
 @Mapper(componentModel = "spring")
-public interface SuperHeroMapper extends EntityMapper<SuperHeroDTO, SuperHero> {}
+public interface SuperHeroMapper extends EntityMapper<SuperHeroDTO, SuperHero> {
+    /**
+     * The version of an entity is managed by Hibernate: the version of the DTO is the one a client expects to update,
+     * which is checked by {@link com.test.hero.service.SuperHeroService}.
+     */
+    @Override
+    @Mapping(target = "version", ignore = true)
+    SuperHero toEntity(SuperHeroDTO dto);
+
+    @Override
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
+    void partialUpdate(@MappingTarget SuperHero entity, SuperHeroDTO dto);
+}
@@ -1,25 +1,43 @@
 package com.test.hero.web.rest;
 
-import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.config.ApplicationProperties;
+import com.test.hero.service.KeysetPage;
 import com.test.hero.service.SuperHeroQueryService;
 import com.test.hero.service.SuperHeroService;
 import com.test.hero.service.RequestTiming;
 import com.test.hero.service.criteria.SuperHeroCriteria;
 import com.test.hero.service.dto.SuperHeroDTO;
 import com.test.hero.web.rest.errors.BadRequestAlertException;
+import com.test.hero.web.rest.errors.PreconditionFailedAlertException;
+import com.test.hero.web.util.SlicePaginationUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -36,23 +54,39 @@ public class SuperHeroResource {
 
     private static final String ENTITY_NAME = "superHero";
 
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String CSV_SEPARATOR = ";";
+
+    private static final String ETAG_ANY = "*";
+
+    private static final int MAX_IDS = 1000;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final SuperHeroService superHeroService;
 
-    private final SuperHeroRepository superHeroRepository;
-
     private final SuperHeroQueryService superHeroQueryService;
 
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Batch batch;
+
     public SuperHeroResource(
         SuperHeroService superHeroService,
-        SuperHeroRepository superHeroRepository,
-        SuperHeroQueryService superHeroQueryService
+        SuperHeroQueryService superHeroQueryService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
     ) {
         this.superHeroService = superHeroService;
-        this.superHeroRepository = superHeroRepository;
         this.superHeroQueryService = superHeroQueryService;
+        this.objectMapper = objectMapper;
+        this.batch = applicationProperties.getBatch();
     }
 
     /**
@@ -76,13 +110,51 @@ public class SuperHeroResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /super-heroes/batch} : Create a batch of new superHeroes.
+     *
+     * @param superHeroDTOs the superHeroDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the ids of the new superHeroes, in the same order,
+     * or with status {@code 400 (Bad Request)} if one of the superHeroes has already an ID, or if there are more than
+     * {@code application.batch.max-size} of them.
+     */
+    @RequestTiming
+    @PostMapping("/super-heroes/batch")
+    public ResponseEntity<List<Long>> createSuperHeroes(@RequestBody List<SuperHeroDTO> superHeroDTOs) {
+        log.debug("REST request to save {} SuperHeroes", superHeroDTOs.size());
+        if (superHeroDTOs.size() > batch.getMaxSize()) {
+            throw new BadRequestAlertException(
+                "At most " + batch.getMaxSize() + " superHeroes can be created at once",
+                ENTITY_NAME,
+                "batchtoolarge"
+            );
+        }
+        if (superHeroDTOs.stream().anyMatch(superHeroDTO -> superHeroDTO.getId() != null)) {
+            throw new BadRequestAlertException("A new superHero cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        List<Long> result = superHeroService.saveAll(superHeroDTOs);
+        return ResponseEntity
+            .status(HttpStatus.CREATED)
+            .headers(
+                HeaderUtil.createAlert(
+                    applicationName,
+                    "A batch of " + result.size() + " superHeroes is created",
+                    String.valueOf(result.size())
+                )
+            )
+            .body(result);
+    }
+
     /**
      * {@code PUT  /super-heroes/:id} : Updates an existing superHero.
      *
      * @param id the id of the superHeroDTO to save.
+     * @param ifMatch the ETag of the version to update, if any.
      * @param superHeroDTO the superHeroDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated superHeroDTO,
      * or with status {@code 400 (Bad Request)} if the superHeroDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the superHeroDTO is not found,
+     * or with status {@code 412 (Precondition Failed)} if the superHero is not at the version of the {@code If-Match} ETag,
      * or with status {@code 500 (Internal Server Error)} if the superHeroDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -90,6 +162,7 @@ public class SuperHeroResource {
     @PutMapping("/super-heroes/{id}")
     public ResponseEntity<SuperHeroDTO> updateSuperHero(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody SuperHeroDTO superHeroDTO
     ) throws URISyntaxException {
         log.debug("REST request to update SuperHero : {}, {}", id, superHeroDTO);
@@ -100,25 +173,24 @@ public class SuperHeroResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!superHeroRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        superHeroDTO.setVersion(expectedVersion(ifMatch));
+        Optional<SuperHeroDTO> result = updateIfMatch(superHeroDTO, () -> superHeroService.update(superHeroDTO));
 
-        SuperHeroDTO result = superHeroService.update(superHeroDTO);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, superHeroDTO.getId().toString()))
-            .body(result);
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, superHeroDTO.getId().toString());
+        result.ifPresent(superHero -> headers.setETag(eTag(superHero)));
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
      * {@code PATCH  /super-heroes/:id} : Partial updates given fields of an existing superHero, field will ignore if it is null
      *
      * @param id the id of the superHeroDTO to save.
+     * @param ifMatch the ETag of the version to update, if any.
      * @param superHeroDTO the superHeroDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated superHeroDTO,
      * or with status {@code 400 (Bad Request)} if the superHeroDTO is not valid,
      * or with status {@code 404 (Not Found)} if the superHeroDTO is not found,
+     * or with status {@code 412 (Precondition Failed)} if the superHero is not at the version of the {@code If-Match} ETag,
      * or with status {@code 500 (Internal Server Error)} if the superHeroDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -126,6 +198,7 @@ public class SuperHeroResource {
     @PatchMapping(value = "/super-heroes/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<SuperHeroDTO> partialUpdateSuperHero(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody SuperHeroDTO superHeroDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update SuperHero partially : {}, {}", id, superHeroDTO);
@@ -136,35 +209,344 @@ public class SuperHeroResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!superHeroRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        superHeroDTO.setVersion(expectedVersion(ifMatch));
+        Optional<SuperHeroDTO> result = updateIfMatch(superHeroDTO, () -> superHeroService.partialUpdate(superHeroDTO));
 
-        Optional<SuperHeroDTO> result = superHeroService.partialUpdate(superHeroDTO);
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, superHeroDTO.getId().toString());
+        result.ifPresent(superHero -> headers.setETag(eTag(superHero)));
+        return ResponseUtil.wrapOrNotFound(result, headers);
+    }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, superHeroDTO.getId().toString())
-        );
+    /**
+     * {@code PATCH  /super-heroes} : Partial updates given fields of all the superHeroes matching the criteria, with a
+     * single statement. Fields which are null are ignored.
+     *
+     * @param criteria the criteria which the entities to update should match, at least one filter is required.
+     * @param superHeroDTO the values to set, without id.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of updated superHeroes,
+     * or with status {@code 400 (Bad Request)} if there is no filter, no value to set, or an id.
+     */
+    @RequestTiming
+    @PatchMapping(value = "/super-heroes", consumes = { "application/json", "application/merge-patch+json" })
+    public ResponseEntity<Integer> partialUpdateSuperHeroes(SuperHeroCriteria criteria, @RequestBody SuperHeroDTO superHeroDTO) {
+        log.debug("REST request to partial update SuperHeroes by criteria: {}, {}", criteria, superHeroDTO);
+        requireFilter(criteria);
+        if (superHeroDTO.getId() != null) {
+            throw new BadRequestAlertException("The id of superHeroes cannot be updated", ENTITY_NAME, "idexists");
+        }
+        if (superHeroDTO.getName() == null && superHeroDTO.getAge() == null && superHeroDTO.getSuperpower() == null) {
+            throw new BadRequestAlertException("No field to update", ENTITY_NAME, "fieldsempty");
+        }
+        int updated = superHeroService.partialUpdateByCriteria(criteria, superHeroDTO);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createAlert(applicationName, updated + " superHeroes are updated", String.valueOf(updated)))
+            .body(updated);
     }
 
     /**
      * {@code GET  /super-heroes} : get all the superHeroes.
+     * <p>
+     * When the {@code after} parameter is present (an empty value requests the first page), keyset pagination is used:
+     * the {@code page} parameter is ignored, no total count is computed, and the cursor of the next page is returned in
+     * the {@code X-Next-Cursor} header and in a {@code next} link.
+     * <p>
+     * When {@code count} is {@code false}, the total count is not computed either: the {@code X-Has-Next-Page} header
+     * and the {@code next}/{@code prev} links are returned instead.
+     * <p>
+     * The response has an ETag, computed from the ids and versions of the superHeroes and from the pagination: when it
+     * matches the {@code If-None-Match} header, the status is {@code 304 (Not Modified)} and the body is not written.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor of the requested page, for keyset pagination.
+     * @param count whether the total count of superHeroes should be returned.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of superHeroes in body.
      */
     @RequestTiming
     @GetMapping("/super-heroes")
     public ResponseEntity<List<SuperHeroDTO>> getAllSuperHeroes(
         SuperHeroCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam(value = "count", defaultValue = "true") boolean count
     ) {
         log.debug("REST request to get SuperHeroes by criteria: {}", criteria);
+        if (after != null) {
+            KeysetPage<SuperHeroDTO> page = superHeroQueryService.findByCriteria(criteria, after, pageable);
+            return ResponseEntity
+                .ok()
+                .headers(generateKeysetHttpHeaders(page))
+                .eTag(eTag(page.getContent(), page.getNextCursor()))
+                .body(page.getContent());
+        }
+        if (!count) {
+            Slice<SuperHeroDTO> slice = superHeroQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).eTag(eTag(slice.getContent(), slice.hasNext())).body(slice.getContent());
+        }
         Page<SuperHeroDTO> page = superHeroQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        return ResponseEntity.ok().headers(headers).eTag(eTag(page.getContent(), page.getTotalElements())).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /super-heroes?ids=:ids} : get the superHeroes with the given ids, in the same order.
+     * <p>
+     * The superHeroes are read from the cache, and those missing from it with a single query. Ids which do not exist
+     * are left out.
+     *
+     * @param ids the comma separated ids of the superHeroes to retrieve, at most 1000.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of superHeroes in body,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @RequestTiming
+    @GetMapping(value = "/super-heroes", params = "ids")
+    public ResponseEntity<List<SuperHeroDTO>> getSuperHeroesByIds(@RequestParam("ids") List<Long> ids) {
+        log.debug("REST request to get SuperHeroes : {}", ids);
+        List<SuperHeroDTO> result = findAllById(ids);
+        // There is no pagination, the content is the whole representation
+        return ResponseEntity.ok().eTag(eTag(result, null)).body(result);
+    }
+
+    /**
+     * {@code POST  /super-heroes/by-ids} : get the superHeroes with the given ids, in the same order, for lists of ids
+     * too long for a URL.
+     * <p>
+     * The response has the ETag of the {@code GET} with the same ids. Spring MVC only answers the conditional
+     * {@code GET} and {@code HEAD} requests: this request only reads, and is answered as the {@code GET} would be.
+     *
+     * @param ids the ids of the superHeroes to retrieve, at most 1000.
+     * @param ifNoneMatch the ETags of the lists of superHeroes which the client already has, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of superHeroes in body,
+     * or with status {@code 304 (Not Modified)} and no body if its ETag matches the {@code If-None-Match} header,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     * @see #getSuperHeroesByIds(List)
+     */
+    @RequestTiming
+    @PostMapping("/super-heroes/by-ids")
+    public ResponseEntity<List<SuperHeroDTO>> getSuperHeroesByIdsInBody(
+        @RequestBody List<Long> ids,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch
+    ) {
+        log.debug("REST request to get {} SuperHeroes", ids.size());
+        List<SuperHeroDTO> result = findAllById(ids);
+        String eTag = eTag(result, null);
+        if (ifNoneMatch != null && ifNoneMatch.stream().anyMatch(tag -> matches(tag, eTag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(result);
+    }
+
+    private List<SuperHeroDTO> findAllById(List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new BadRequestAlertException("At most " + MAX_IDS + " ids can be requested", ENTITY_NAME, "idstoomany");
+        }
+        if (ids.contains(null)) {
+            throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
+        }
+        return superHeroService.findAllById(ids);
+    }
+
+    /**
+     * {@code DELETE  /super-heroes} : delete all the superHeroes matching the criteria, with a single statement.
+     *
+     * @param criteria the criteria which the entities to delete should match, at least one filter is required.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of deleted superHeroes,
+     * or with status {@code 400 (Bad Request)} if there is no filter.
+     */
+    @RequestTiming
+    @DeleteMapping("/super-heroes")
+    public ResponseEntity<Integer> deleteSuperHeroes(SuperHeroCriteria criteria) {
+        log.debug("REST request to delete SuperHeroes by criteria: {}", criteria);
+        requireFilter(criteria);
+        int deleted = superHeroService.deleteByCriteria(criteria);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createAlert(applicationName, deleted + " superHeroes are deleted", String.valueOf(deleted)))
+            .body(deleted);
+    }
+
+    /**
+     * Bulk operations must not apply to every superHero by mistake, because a filter was misspelled or forgotten.
+     */
+    private void requireFilter(SuperHeroCriteria criteria) {
+        SuperHeroCriteria filters = criteria.copy();
+        filters.setDistinct(null);
+        if (new SuperHeroCriteria().equals(filters)) {
+            throw new BadRequestAlertException("At least one filter is required", ENTITY_NAME, "criteriaempty");
+        }
+    }
+
+    /**
+     * The ETag of a superHero is its version, which changes with every update.
+     */
+    private static String eTag(SuperHeroDTO superHero) {
+        return "\"" + superHero.getVersion() + "\"";
+    }
+
+    /**
+     * The ETag of a list of superHeroes is a digest of their ids and versions, and of the pagination state which the
+     * headers depend on, so that it is known without serializing the body.
+     */
+    private static String eTag(List<SuperHeroDTO> superHeroes, Object pagination) {
+        StringBuilder state = new StringBuilder().append(pagination);
+        for (SuperHeroDTO superHero : superHeroes) {
+            state.append(';').append(superHero.getId()).append(':').append(superHero.getVersion());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * @return whether an ETag of the {@code If-None-Match} header matches the ETag, with the weak comparison.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        String tag = ifNoneMatch.trim();
+        return ETAG_ANY.equals(tag) || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(eTag);
+    }
+
+    /**
+     * @return the version which the {@code If-Match} header requires, or {@code null} if there is no header or if it
+     * matches any version.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ETAG_ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not the ETag of a superHero
+            }
+        }
+        // Weak ETags, lists of ETags and the ETags of lists never match a single version
+        throw new PreconditionFailedAlertException("The superHero does not match the If-Match ETag", ENTITY_NAME, "versionmismatch");
+    }
+
+    /**
+     * Run an update, which fails with {@code 412 (Precondition Failed)} if the superHeroDTO has a version and the
+     * superHero is not at that version anymore.
+     */
+    private static <T> T updateIfMatch(SuperHeroDTO superHeroDTO, Supplier<T> update) {
+        try {
+            return update.get();
+        } catch (OptimisticLockingFailureException e) {
+            if (superHeroDTO.getVersion() == null) {
+                throw e;
+            }
+            throw new PreconditionFailedAlertException("The superHero does not match the If-Match ETag", ENTITY_NAME, "versionmismatch");
+        }
+    }
+
+    private HttpHeaders generateKeysetHttpHeaders(KeysetPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            String next = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("after", page.getNextCursor())
+                .replaceQueryParam("page")
+                .toUriString();
+            headers.add(HEADER_NEXT_CURSOR, page.getNextCursor());
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    /**
+     * {@code GET  /super-heroes/export} : export all the superHeroes matching the criteria, ordered by id.
+     * <p>
+     * The superHeroes are streamed to the response as they are read from the database, so memory use does not depend
+     * on the number of exported superHeroes.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param format the export format: {@code ndjson} (one JSON object per line) or {@code csv} (semicolon separated,
+     * with the same layout as the Liquibase fake data).
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the superHeroes in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @RequestTiming
+    @GetMapping("/super-heroes/export")
+    public ResponseEntity<StreamingResponseBody> exportSuperHeroes(
+        SuperHeroCriteria criteria,
+        @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        log.debug("REST request to export SuperHeroes by criteria: {}, format: {}", criteria, format);
+        MediaType mediaType;
+        String headerLine;
+        ExportLineWriter lineWriter;
+        if ("ndjson".equals(format)) {
+            mediaType = APPLICATION_NDJSON;
+            headerLine = null;
+            lineWriter = (writer, superHero) -> writer.write(objectMapper.writeValueAsString(superHero));
+        } else if ("csv".equals(format)) {
+            mediaType = TEXT_CSV;
+            headerLine = String.join(CSV_SEPARATOR, "id", "name", "age", "superpower");
+            lineWriter = SuperHeroResource::writeCsvLine;
+        } else {
+            throw new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (headerLine != null) {
+                writer.write(headerLine);
+                writer.write('\n');
+            }
+            try {
+                superHeroQueryService.exportByCriteria(
+                    criteria,
+                    superHero -> {
+                        try {
+                            lineWriter.write(writer, superHero);
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                );
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity
+            .ok()
+            .contentType(mediaType)
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("super_hero." + format).build().toString()
+            )
+            .body(body);
+    }
+
+    private static void writeCsvLine(Writer writer, SuperHeroDTO superHero) throws IOException {
+        writer.write(
+            String.join(
+                CSV_SEPARATOR,
+                csvValue(superHero.getId()),
+                csvValue(superHero.getName()),
+                csvValue(superHero.getAge()),
+                csvValue(superHero.getSuperpower())
+            )
+        );
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(CSV_SEPARATOR) || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    @FunctionalInterface
+    private interface ExportLineWriter {
+        void write(Writer writer, SuperHeroDTO superHero) throws IOException;
     }
 
     /**
@@ -184,14 +566,17 @@ public class SuperHeroResource {
      * {@code GET  /super-heroes/:id} : get the "id" superHero.
      *
      * @param id the id of the superHeroDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the superHeroDTO, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the superHeroDTO, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} and no body if its ETag matches the {@code If-None-Match} header.
      */
     @RequestTiming
     @GetMapping("/super-heroes/{id}")
     public ResponseEntity<SuperHeroDTO> getSuperHero(@PathVariable Long id) {
         log.debug("REST request to get SuperHero : {}", id);
         Optional<SuperHeroDTO> superHeroDTO = superHeroService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(superHeroDTO);
+        HttpHeaders headers = new HttpHeaders();
+        superHeroDTO.ifPresent(superHero -> headers.setETag(eTag(superHero)));
+        return ResponseUtil.wrapOrNotFound(superHeroDTO, headers);
     }
 
     /**
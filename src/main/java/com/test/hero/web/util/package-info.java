@@ -0,0 +1,4 @@
+/**
+ * Web utilities.
+ */
+package com.test.hero.web.util;
@@ -0,0 +1,113 @@
+package com.test.hero.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.repository.UserRepository;
+import com.test.hero.security.AuthoritiesConstants;
+import com.test.hero.service.SuperHeroService;
+import java.util.List;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for {@link CacheStatisticsEndpoint}, exposed as in {@code application.yml}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@TestPropertySource(
+    properties = { "management.endpoints.web.base-path=/management", "management.endpoints.web.exposure.include=cachestats" }
+)
+class CacheStatisticsEndpointIT {
+
+    private static final int LOOKUPS = 10;
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private SuperHeroService superHeroService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private SuperHero hotSuperHero;
+
+    private SuperHero coldSuperHero;
+
+    @BeforeEach
+    public void init() {
+        hotSuperHero = superHeroRepository.saveAndFlush(new SuperHero().name("Hot hero").age(1).superpower("Popularity"));
+        coldSuperHero = superHeroRepository.saveAndFlush(new SuperHero().name("Cold hero").age(1).superpower("Obscurity"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        superHeroRepository.deleteAllById(List.of(hotSuperHero.getId(), coldSuperHero.getId()));
+    }
+
+    @Test
+    void superHeroCacheStatisticsAreReported() throws Exception {
+        for (int i = 0; i < LOOKUPS; i++) {
+            superHeroService.findOne(hotSuperHero.getId());
+        }
+        superHeroService.findOne(coldSuperHero.getId());
+
+        mockMvc
+            .perform(get("/management/cachestats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.superHero.hits").value(Matchers.greaterThanOrEqualTo(LOOKUPS - 1)))
+            .andExpect(jsonPath("$.superHero.misses").value(Matchers.greaterThanOrEqualTo(2)))
+            .andExpect(jsonPath("$.superHero.hitRatio").isNumber())
+            .andExpect(jsonPath("$.superHero.puts").value(Matchers.greaterThanOrEqualTo(2)))
+            .andExpect(jsonPath("$.superHero.loads.count").value(Matchers.greaterThanOrEqualTo(2)))
+            .andExpect(jsonPath("$.superHero.loads.p99Millis").isNumber())
+            .andExpect(jsonPath("$.superHero.hotKeys[0].key").value(String.valueOf(hotSuperHero.getId())))
+            .andExpect(jsonPath("$.superHero.hotKeys[0].lookups").value(Matchers.greaterThanOrEqualTo(LOOKUPS)));
+    }
+
+    @Test
+    void userCacheHotKeysAreHashed() throws Exception {
+        for (int i = 0; i < LOOKUPS; i++) {
+            userRepository.findOneWithAuthoritiesByLogin("admin");
+        }
+
+        mockMvc
+            .perform(get("/management/cachestats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.usersByLogin.hotKeys[0].key").value(Matchers.matchesPattern("[0-9a-f]{16}")))
+            .andExpect(jsonPath("$.usersByLogin.hotKeys[0].lookups").value(Matchers.greaterThanOrEqualTo(LOOKUPS)))
+            .andExpect(jsonPath("$.usersByLogin.hotKeys[*].key").value(Matchers.not(Matchers.hasItem("admin"))));
+    }
+
+    @Test
+    void allCachesWithRefreshAheadAreReported() throws Exception {
+        mockMvc
+            .perform(get("/management/cachestats"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.superHero").exists())
+            .andExpect(jsonPath("$.usersByLogin").exists())
+            .andExpect(jsonPath("$.usersByEmail").exists());
+    }
+
+    @Test
+    @WithMockUser
+    void statisticsRequireTheAdminAuthority() throws Exception {
+        mockMvc.perform(get("/management/cachestats")).andExpect(status().isForbidden());
+    }
+}
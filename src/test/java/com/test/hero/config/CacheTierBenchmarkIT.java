@@ -0,0 +1,132 @@
+package com.test.hero.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.service.SuperHeroCache;
+import com.test.hero.service.dto.SuperHeroDTO;
+import java.io.Serializable;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Garbage collection comparison of a {@code superHero} cache of {@value #DEFAULT_ENTRIES} entries kept on heap against
+ * the same cache with a small heap tier over an off-heap tier, both configured by {@link CacheConfiguration}.
+ * <p>
+ * For each cache, the time spent in garbage collection while filling it, the pause of the full collections run once
+ * it is full, and the heap they leave in use are logged. Both caches must return the same entries, and the off-heap
+ * tier must leave less heap in use; the timings depend too much on the build machine to be asserted. Run with
+ * {@code -Dbenchmark.cache.entries} to change the number of entries, a million for figures closer to production.
+ */
+class CacheTierBenchmarkIT {
+
+    private static final int DEFAULT_ENTRIES = 100_000;
+
+    private static final int ENTRIES = Integer.getInteger("benchmark.cache.entries", DEFAULT_ENTRIES);
+
+    private static final int FULL_COLLECTIONS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(CacheTierBenchmarkIT.class);
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void init() {
+        EhcacheCachingProvider cachingProvider = (EhcacheCachingProvider) Caching.getCachingProvider(
+            EhcacheCachingProvider.class.getName()
+        );
+        cacheManager =
+            cachingProvider.getCacheManager(
+                URI.create("urn:cache-tier-benchmark"),
+                new DefaultConfiguration(CacheTierBenchmarkIT.class.getClassLoader())
+            );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        cacheManager.close();
+    }
+
+    @Test
+    // Filling a million entries twice, when asked to, outlasts the default timeout of the test methods
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void compareHeapAndOffHeapGarbageCollection() {
+        ApplicationProperties.Cache.Region heap = new ApplicationProperties.Cache.Region();
+        heap.setMaxEntries((long) ENTRIES);
+        long[] onHeap = measure(createCache("heap", heap));
+        cacheManager.destroyCache("heap");
+
+        ApplicationProperties.Cache.Region offHeap = new ApplicationProperties.Cache.Region();
+        offHeap.setMaxEntries(1000L);
+        offHeap.setOffHeap(DataSize.ofMegabytes(Math.max(64, ENTRIES / 2000)));
+        long[] offHeapTier = measure(createCache("offHeap", offHeap));
+
+        log.info(
+            "Cached {} superHeroes: on heap {} ms of GC while filling, {} ms of full GC pause and {} MB of heap, " +
+            "off heap {} ms of GC while filling, {} ms of full GC pause and {} MB of heap",
+            ENTRIES,
+            onHeap[0],
+            onHeap[1],
+            onHeap[2] / 1024 / 1024,
+            offHeapTier[0],
+            offHeapTier[1],
+            offHeapTier[2] / 1024 / 1024
+        );
+        assertThat(offHeapTier[2]).isLessThan(onHeap[2]);
+    }
+
+    private Cache<Long, Serializable> createCache(String name, ApplicationProperties.Cache.Region region) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().getRegions().put(SuperHeroCache.SUPER_HERO_CACHE, region);
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(new JHipsterProperties(), applicationProperties);
+        return cacheManager.createCache(
+            name,
+            cacheConfiguration.jcacheConfiguration(SuperHeroCache.SUPER_HERO_CACHE, Long.class, Serializable.class)
+        );
+    }
+
+    /**
+     * @return the milliseconds of garbage collection while filling the cache, the milliseconds of the full collections
+     * once it is full, and the bytes of heap left in use.
+     */
+    private long[] measure(Cache<Long, Serializable> cache) {
+        System.gc();
+        long collectionBefore = collectionMillis();
+        for (long id = 0; id < ENTRIES; id++) {
+            cache.put(id, new SuperHeroDTO(id, "Benchmark hero " + id, (int) (id % 100), "Off-heap", 0L));
+        }
+        long fillCollection = collectionMillis() - collectionBefore;
+
+        long fullCollectionBefore = collectionMillis();
+        for (int i = 0; i < FULL_COLLECTIONS; i++) {
+            System.gc();
+        }
+        long fullCollection = (collectionMillis() - fullCollectionBefore) / FULL_COLLECTIONS;
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        for (long id = 0; id < ENTRIES; id += ENTRIES / 10) {
+            assertThat(cache.get(id))
+                .usingRecursiveComparison()
+                .isEqualTo(new SuperHeroDTO(id, "Benchmark hero " + id, (int) (id % 100), "Off-heap", 0L));
+        }
+        return new long[] { fillCollection, fullCollection, heapUsed };
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
@@ -0,0 +1,86 @@
+package com.test.hero.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Datasource which the tests can make slow or unreachable: connections are then handed out late, or not at all.
+ * <p>
+ * Import {@link Configuration} to wrap the datasource of the application context with it.
+ */
+public class FaultInjectingDataSource extends DelegatingDataSource {
+
+    private volatile Duration delay = Duration.ZERO;
+
+    private volatile boolean unreachable;
+
+    public FaultInjectingDataSource(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    public void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    public void setUnreachable(boolean unreachable) {
+        this.unreachable = unreachable;
+    }
+
+    /**
+     * Make the database fast and reachable again.
+     */
+    public void reset() {
+        delay = Duration.ZERO;
+        unreachable = false;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        injectFault();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        injectFault();
+        return super.getConnection(username, password);
+    }
+
+    private void injectFault() throws SQLException {
+        if (unreachable) {
+            throw new SQLTransientConnectionException("Database made unreachable by the test");
+        }
+        if (!delay.isZero()) {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while delayed by the test", e);
+            }
+        }
+    }
+
+    @TestConfiguration
+    public static class Configuration {
+
+        @Bean
+        public static BeanPostProcessor faultInjectingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && !(bean instanceof FaultInjectingDataSource)) {
+                        return new FaultInjectingDataSource((DataSource) bean);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
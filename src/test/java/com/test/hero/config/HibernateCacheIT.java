@@ -0,0 +1,121 @@
+package com.test.hero.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.domain.Authority;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.User;
+import com.test.hero.repository.AuthorityRepository;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.repository.UserRepository;
+import com.test.hero.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import java.util.Set;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the Hibernate second level cache set up by {@link CacheConfiguration}.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+    }
+)
+class HibernateCacheIT {
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private SuperHero superHero;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        superHero = superHeroRepository.save(new SuperHero().name("Cached hero").age(1).superpower("Second level"));
+        User newUser = new User();
+        newUser.setLogin("l2-" + RandomStringUtils.randomAlphanumeric(10).toLowerCase());
+        newUser.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        newUser.setActivated(true);
+        newUser.setAuthorities(Set.of(authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow()));
+        user = userRepository.save(newUser);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        superHeroRepository.deleteById(superHero.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void repeatedSuperHeroLookupsDoNotReachTheDatabase() {
+        // The entity was put in the cache when it was inserted
+        assertThat(superHeroRepository.findById(superHero.getId())).isPresent();
+        assertThat(superHeroRepository.existsById(superHero.getId())).isTrue();
+        assertThat(superHeroRepository.findById(superHero.getId())).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(SuperHero.class.getName()).getHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void repeatedUserLookupsWithAuthoritiesDoNotReachTheDatabase() {
+        transactionTemplate.executeWithoutResult(status ->
+            assertThat(userRepository.findById(user.getId()).orElseThrow().getAuthorities()).hasSize(1)
+        );
+        long statementsAfterFirstLookup = statistics.getPrepareStatementCount();
+
+        transactionTemplate.executeWithoutResult(status ->
+            assertThat(userRepository.findById(user.getId()).orElseThrow().getAuthorities())
+                .extracting(Authority::getName)
+                .containsExactly(AuthoritiesConstants.USER)
+        );
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstLookup);
+        assertThat(statistics.getDomainDataRegionStatistics(User.class.getName() + ".authorities").getHitCount()).isPositive();
+    }
+
+    @Test
+    void secondLevelCacheStatisticsArePublished() {
+        superHeroRepository.findById(superHero.getId());
+
+        Search requests = meterRegistry.find("hibernate.second.level.cache.requests").tag("region", SuperHero.class.getName());
+        assertThat(requests.functionCounters()).isNotEmpty();
+    }
+}
@@ -0,0 +1,86 @@
+package com.test.hero.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.repository.SuperHeroRepository;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for {@link ServerTimingConfiguration}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "application.server-timing.enabled=true")
+class ServerTimingIT {
+
+    private static final String ENTITY_API_URL = "/api/super-heroes/{id}";
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private SuperHero superHero;
+
+    @BeforeEach
+    public void init() {
+        superHero = superHeroRepository.saveAndFlush(new SuperHero().name("Timed hero").age(1).superpower("Punctuality"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        superHeroRepository.findById(superHero.getId()).ifPresent(superHeroRepository::delete);
+    }
+
+    @Test
+    void lookupIsTimedBySegment() throws Exception {
+        MvcResult result = mockMvc.perform(get(ENTITY_API_URL, superHero.getId())).andExpect(status().isOk()).andReturn();
+
+        Map<String, Double> durations = durations(result);
+        assertThat(durations).containsOnlyKeys("db", "cache", "mapper", "json", ServerTiming.TOTAL);
+        assertThat(durations.values()).allMatch(duration -> duration > 0);
+        assertThat(durations.get(ServerTiming.TOTAL))
+            .isGreaterThanOrEqualTo(durations.get("db") + durations.get("cache") + durations.get("mapper") + durations.get("json"));
+    }
+
+    @Test
+    void responseWithoutBodyIsTimed() throws Exception {
+        MvcResult result = mockMvc.perform(delete(ENTITY_API_URL, superHero.getId())).andExpect(status().isNoContent()).andReturn();
+
+        assertThat(durations(result).get("db")).isPositive();
+    }
+
+    @Test
+    void errorResponseIsTimed() throws Exception {
+        MvcResult result = mockMvc.perform(get(ENTITY_API_URL, Long.MAX_VALUE)).andExpect(status().isNotFound()).andReturn();
+
+        assertThat(durations(result).get("json")).isPositive();
+    }
+
+    private static Map<String, Double> durations(MvcResult result) {
+        String header = result.getResponse().getHeader(ServerTiming.HEADER);
+        assertThat(header).as(ServerTiming.HEADER + " header").isNotNull();
+        return Arrays
+            .stream(header.split(", "))
+            .map(metric -> metric.split(";dur="))
+            .collect(Collectors.toMap(metric -> metric[0], metric -> Double.valueOf(metric[1])));
+    }
+}
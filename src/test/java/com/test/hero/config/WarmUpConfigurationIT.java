@@ -0,0 +1,88 @@
+package com.test.hero.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.TestHeroApp;
+import com.test.hero.repository.UserRepository;
+import com.test.hero.service.RefreshAheadCacheResolver;
+import com.test.hero.service.RequestTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+/**
+ * Integration tests for {@link WarmUpConfiguration}, on a server started on a random port so that the warm-up requests
+ * are replayed over HTTP, under a context path.
+ */
+@SpringBootTest(
+    classes = { TestHeroApp.class, AsyncSyncConfiguration.class },
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "application.warm-up.enabled=true",
+        "application.warm-up.requests=" + WarmUpConfigurationIT.REQUESTS,
+        "server.servlet.context-path=" + WarmUpConfigurationIT.CONTEXT_PATH,
+    }
+)
+@EmbeddedSQL
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class WarmUpConfigurationIT {
+
+    static final int REQUESTS = 50;
+
+    static final String CONTEXT_PATH = "/warm-up";
+
+    @Autowired
+    private HealthIndicator warmUpHealthIndicator;
+
+    @Autowired
+    private RefreshAheadCacheResolver refreshAheadCacheResolver;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void warmUpIsDoneOnceTheApplicationIsReady() {
+        assertThat(warmUpHealthIndicator.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmUpHealthIndicator.health().getDetails()).containsKey("durationMillis");
+    }
+
+    @Test
+    void activatedUsersArePreloaded() {
+        assertThat(refreshAheadCacheResolver.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("user")).isNotNull();
+        assertThat(refreshAheadCacheResolver.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("admin")).isNotNull();
+    }
+
+    @Test
+    void requestsAreReplayedThroughTheServer() {
+        Collection<Timer> timers = meterRegistry
+            .find("http.server.requests")
+            .timers()
+            .stream()
+            .filter(timer -> timer.getId().getTag("uri").startsWith("/api/super-heroes"))
+            .collect(Collectors.toList());
+
+        assertThat(timers.stream().mapToLong(Timer::count).sum()).isEqualTo(REQUESTS);
+        // Authenticated by their JWT, the superHeroes being missing
+        assertThat(timers).extracting(timer -> timer.getId().getTag("status")).containsOnly("200", "404");
+    }
+
+    @Test
+    void requestsAreNotRecordedInTheApplicationMeters() {
+        assertThat(meterRegistry.find(RequestTiming.DEFAULT_NAME).timers()).isEmpty();
+        assertThat(
+            meterRegistry
+                .find(SqlStatementFilter.STATEMENTS_METER_NAME)
+                .summaries()
+                .stream()
+                .filter(summary -> summary.getId().getTag(SqlStatementFilter.ENDPOINT_TAG).contains("/api/super-heroes"))
+        )
+            .isEmpty();
+    }
+}
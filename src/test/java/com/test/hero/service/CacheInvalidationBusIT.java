@@ -0,0 +1,218 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.TestHeroApp;
+import com.test.hero.config.AsyncSyncConfiguration;
+import com.test.hero.config.EmbeddedSQL;
+import com.test.hero.domain.User;
+import com.test.hero.repository.AuthorityRepository;
+import com.test.hero.repository.UserRepository;
+import com.test.hero.security.AuthoritiesConstants;
+import com.test.hero.service.criteria.SuperHeroCriteria;
+import com.test.hero.service.dto.AdminUserDTO;
+import com.test.hero.service.dto.SuperHeroDTO;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Integration tests for {@link CacheInvalidationBus}, with two nodes sharing an H2 database: the test context, and a
+ * second application context started by the test, each with its own caches.
+ */
+@SpringBootTest(
+    classes = { TestHeroApp.class, AsyncSyncConfiguration.class, CacheInvalidationBusIT.SchedulingConfiguration.class },
+    properties = {
+        CacheInvalidationBusIT.DATASOURCE_URL,
+        "application.cache.invalidation.enabled=true",
+        "application.cache.invalidation.poll-interval-millis=" + CacheInvalidationBusIT.POLL_INTERVAL_MILLIS,
+    }
+)
+@EmbeddedSQL
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CacheInvalidationBusIT {
+
+    static final String DATASOURCE_URL = "spring.datasource.url=jdbc:h2:mem:cache-invalidation;DB_CLOSE_DELAY=-1";
+
+    static final long POLL_INTERVAL_MILLIS = 500;
+
+    /**
+     * A poll may take longer than expected on a busy machine.
+     */
+    private static final Duration CONVERGENCE_TIMEOUT = Duration.ofMillis(POLL_INTERVAL_MILLIS + 1000);
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @Autowired
+    private SuperHeroService superHeroService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TestConfiguration
+    @EnableScheduling
+    static class SchedulingConfiguration {}
+
+    @BeforeAll
+    static void startOtherNode() {
+        otherNode =
+            new SpringApplicationBuilder(TestHeroApp.class, AsyncSyncConfiguration.class, SchedulingConfiguration.class)
+                .properties(
+                    DATASOURCE_URL,
+                    "server.port=0",
+                    "application.cache.disk-directory=" + System.getProperty("java.io.tmpdir") + "/test-hero/other-node-cache",
+                    "application.cache.invalidation.enabled=true",
+                    "application.cache.invalidation.poll-interval-millis=" + POLL_INTERVAL_MILLIS
+                )
+                .run();
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        otherNode.close();
+    }
+
+    @Test
+    void superHeroWrittenOnANodeIsSeenByTheOtherWithinThePollInterval() {
+        SuperHeroService otherSuperHeroService = otherNode.getBean(SuperHeroService.class);
+        SuperHeroDTO superHero = new SuperHeroDTO();
+        superHero.setName("Invalidated hero");
+        superHero.setAge(1);
+        superHero.setSuperpower("Bus");
+        superHero = superHeroService.save(superHero);
+        Long id = superHero.getId();
+
+        // The id of the new superHero is added to the ids of the other node
+        assertConverges(() -> otherSuperHeroService.findOne(id).map(SuperHeroDTO::getName), Optional.of("Invalidated hero"));
+
+        superHero.setName("Renamed hero");
+        superHeroService.update(superHero);
+
+        assertConverges(() -> otherSuperHeroService.findOne(id).map(SuperHeroDTO::getName), Optional.of("Renamed hero"));
+
+        superHeroService.delete(id);
+
+        assertConverges(() -> otherSuperHeroService.findOne(id).map(SuperHeroDTO::getName), Optional.empty());
+    }
+
+    @Test
+    void userWrittenOnTheOtherNodeIsSeenByThisOneWithinThePollInterval() {
+        UserService otherUserService = otherNode.getBean(UserService.class);
+        User user = new User();
+        user.setLogin("bus-" + RandomStringUtils.randomAlphanumeric(8).toLowerCase());
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail(user.getLogin() + "@localhost");
+        user.setFirstName("Cached");
+        user.setLangKey("en");
+        user.getAuthorities().add(authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow());
+        user = userRepository.saveAndFlush(user);
+        String login = user.getLogin();
+        assertThat(userService.getUserWithAuthoritiesByLogin(login))
+            .hasValueSatisfying(cached -> assertThat(cached.getFirstName()).isEqualTo("Cached"));
+
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setFirstName("Updated");
+        otherUserService.updateUser(userDTO);
+
+        assertConverges(() -> userService.getUserWithAuthoritiesByLogin(login).map(User::getFirstName), Optional.of("Updated"));
+
+        userRepository.deleteAllById(List.of(user.getId()));
+    }
+
+    @Test
+    void superHeroInsertedWithoutInvalidationIsFoundOnceTheOtherNodeClearsTheCache() {
+        Long id = 1_000_000L;
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update("insert into super_hero (id, name, age, superpower) values (?, 'Scripted hero', 1, 'Bus')", id)
+        );
+        assertThat(superHeroService.findOne(id)).isEmpty();
+
+        otherNode.getBean(CacheInvalidationBus.class).publishClear(SuperHeroCache.SUPER_HERO_CACHE);
+
+        assertConverges(() -> superHeroService.findOne(id).map(SuperHeroDTO::getName), Optional.of("Scripted hero"));
+
+        superHeroService.delete(id);
+    }
+
+    @Test
+    void bulkUpdateOfManySuperHeroesPublishesASingleClear() {
+        long firstId = 2_000_000L;
+        List<Object[]> rows = LongStream
+            .rangeClosed(firstId, firstId + SuperHeroService.MAX_EVICTED_IDS)
+            .mapToObj(id -> new Object[] { id })
+            .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate("insert into super_hero (id, name, age, superpower) values (?, 'Bulk hero', 1, 'Bulk')", rows)
+        );
+        SuperHeroService otherSuperHeroService = otherNode.getBean(SuperHeroService.class);
+        otherNode.getBean(SuperHeroIds.class).load();
+        assertThat(otherSuperHeroService.findOne(firstId).map(SuperHeroDTO::getName)).contains("Bulk hero");
+        long lastInvalidation = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from cache_invalidation", Long.class);
+
+        SuperHeroCriteria criteria = new SuperHeroCriteria();
+        StringFilter superpower = new StringFilter();
+        superpower.setEquals("Bulk");
+        criteria.setSuperpower(superpower);
+        SuperHeroDTO values = new SuperHeroDTO();
+        values.setName("Renamed bulk hero");
+        assertThat(superHeroService.partialUpdateByCriteria(criteria, values)).isEqualTo(SuperHeroService.MAX_EVICTED_IDS + 1);
+
+        assertThat(
+            jdbcTemplate.queryForList(
+                "select cache_key from cache_invalidation where id > ? and cache_name = ?",
+                String.class,
+                lastInvalidation,
+                SuperHeroCache.SUPER_HERO_CACHE
+            )
+        )
+            .containsExactly((String) null);
+        assertConverges(() -> otherSuperHeroService.findOne(firstId).map(SuperHeroDTO::getName), Optional.of("Renamed bulk hero"));
+
+        superHeroService.deleteByCriteria(criteria);
+    }
+
+    private static <T> void assertConverges(Supplier<T> actual, T expected) {
+        long start = System.nanoTime();
+        T value = actual.get();
+        while (!expected.equals(value) && System.nanoTime() - start < CONVERGENCE_TIMEOUT.toNanos()) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS / 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            value = actual.get();
+        }
+        assertThat(value).isEqualTo(expected);
+    }
+}
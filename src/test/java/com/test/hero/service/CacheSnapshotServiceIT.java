@@ -0,0 +1,178 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.domain.User;
+import com.test.hero.repository.AuthorityRepository;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.repository.UserRepository;
+import com.test.hero.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.List;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * Integration tests for {@link CacheSnapshotService}, which write a snapshot of the caches, clear them, change some of
+ * the cached rows in the database, and restore the snapshot.
+ */
+@IntegrationTest
+class CacheSnapshotServiceIT {
+
+    @Autowired
+    private CacheSnapshotService cacheSnapshotService;
+
+    @Autowired
+    private RefreshAheadCacheResolver refreshAheadCacheResolver;
+
+    @Autowired
+    private SuperHeroService superHeroService;
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @TempDir
+    Path directory;
+
+    private SuperHero unchangedSuperHero;
+
+    private SuperHero changedSuperHero;
+
+    private User unchangedUser;
+
+    private User changedUser;
+
+    @BeforeEach
+    public void init() {
+        unchangedSuperHero = superHeroRepository.saveAndFlush(new SuperHero().name("Unchanged hero").age(1).superpower("Snapshot"));
+        changedSuperHero = superHeroRepository.saveAndFlush(new SuperHero().name("Changed hero").age(1).superpower("Snapshot"));
+        unchangedUser = userRepository.saveAndFlush(createUser("unchanged"));
+        changedUser = userRepository.saveAndFlush(createUser("changed"));
+        refreshAheadCacheResolver.getCaches().forEach(Cache::clear);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        refreshAheadCacheResolver.getCaches().forEach(Cache::clear);
+        superHeroRepository.deleteAllById(List.of(unchangedSuperHero.getId(), changedSuperHero.getId()));
+        userRepository.deleteAllById(List.of(unchangedUser.getId(), changedUser.getId()));
+    }
+
+    @Test
+    void unchangedSuperHeroesAreRestoredAndUsersReloaded() {
+        Path snapshot = directory.resolve("cache-snapshot.bin");
+        superHeroService.findOne(unchangedSuperHero.getId());
+        superHeroService.findOne(changedSuperHero.getId());
+        userService.getUserWithAuthoritiesByLogin(unchangedUser.getLogin());
+        userService.getUserWithAuthoritiesByLogin(changedUser.getLogin());
+        cacheSnapshotService.write(snapshot);
+        refreshAheadCacheResolver.getCaches().forEach(Cache::clear);
+
+        superHeroRepository.saveAndFlush(superHeroRepository.findById(changedSuperHero.getId()).orElseThrow().name("Renamed hero"));
+        User user = userRepository.findOneWithAuthoritiesByLogin(changedUser.getLogin()).orElseThrow();
+        user.getAuthorities().add(authorityRepository.findById(AuthoritiesConstants.ADMIN).orElseThrow());
+        userRepository.saveAndFlush(user);
+        refreshAheadCacheResolver.getCaches().forEach(Cache::clear);
+        cacheSnapshotService.restore(snapshot);
+
+        assertThat(refreshAheadCacheResolver.getCache(SuperHeroCache.SUPER_HERO_CACHE).getAll(List.of(unchangedSuperHero.getId())))
+            .containsOnlyKeys(unchangedSuperHero.getId());
+        assertThat(refreshAheadCacheResolver.getCache(SuperHeroCache.SUPER_HERO_CACHE).getAll(List.of(changedSuperHero.getId())))
+            .isEmpty();
+        assertThat(refreshAheadCacheResolver.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(unchangedUser.getLogin(), User.class))
+            .isNotNull();
+        assertThat(refreshAheadCacheResolver.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(changedUser.getLogin(), User.class))
+            .satisfies(restored ->
+                assertThat(restored.getAuthorities()).extracting("name").contains(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
+            );
+        assertThat(superHeroService.findOne(changedSuperHero.getId()))
+            .hasValueSatisfying(superHero -> assertThat(superHero.getName()).isEqualTo("Renamed hero"));
+    }
+
+    @Test
+    void snapshotIsReadableByItsOwnerOnlyAndHoldsNoUserData() throws IOException {
+        Path snapshot = directory.resolve("snapshots").resolve("cache-snapshot.bin");
+        userService.getUserWithAuthoritiesByLogin(unchangedUser.getLogin());
+        userRepository.findOneWithAuthoritiesByEmailIgnoreCase(unchangedUser.getEmail());
+        cacheSnapshotService.write(snapshot);
+
+        assertThat(Files.getPosixFilePermissions(snapshot)).isEqualTo(PosixFilePermissions.fromString("rw-------"));
+        assertThat(Files.getPosixFilePermissions(snapshot.getParent())).isEqualTo(PosixFilePermissions.fromString("rwx------"));
+        String content = new String(Files.readAllBytes(snapshot), StandardCharsets.ISO_8859_1);
+        assertThat(content).contains(unchangedUser.getLogin()).doesNotContain(unchangedUser.getPassword());
+    }
+
+    @Test
+    void snapshotAccessibleToOtherUsersIsIgnored() throws IOException {
+        Path snapshot = directory.resolve("cache-snapshot.bin");
+        superHeroService.findOne(unchangedSuperHero.getId());
+        cacheSnapshotService.write(snapshot);
+        refreshAheadCacheResolver.getCaches().forEach(Cache::clear);
+        Files.setPosixFilePermissions(snapshot, PosixFilePermissions.fromString("rw-rw-r--"));
+
+        cacheSnapshotService.restore(snapshot);
+
+        assertThat(refreshAheadCacheResolver.getCache(SuperHeroCache.SUPER_HERO_CACHE).entries()).isEmpty();
+    }
+
+    @Test
+    void missingSnapshotLeavesTheCachesEmpty() {
+        cacheSnapshotService.restore(directory.resolve("missing.bin"));
+
+        assertThat(refreshAheadCacheResolver.getCache(SuperHeroCache.SUPER_HERO_CACHE).entries()).isEmpty();
+    }
+
+    @Test
+    void entryPastItsTimeToLiveIsNotRestored() {
+        RefreshAheadCache cache = new RefreshAheadCache(
+            new ConcurrentMapCache("restored"),
+            Duration.ofMinutes(1),
+            Duration.ofMinutes(2),
+            Duration.ofMinutes(1),
+            Duration.ofMillis(100),
+            Runnable::run,
+            new SimpleMeterRegistry(),
+            new HotKeySketch(10, 64)
+        );
+        long now = System.currentTimeMillis();
+
+        assertThat(cache.restore(new RefreshAheadCache.StampedEntry("expired", "value", now - Duration.ofMinutes(2).toMillis()))).isFalse();
+        assertThat(cache.restore(new RefreshAheadCache.StampedEntry("fresh", "value", now - Duration.ofMinutes(1).toMillis()))).isTrue();
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.get("fresh", String.class)).isEqualTo("value");
+    }
+
+    private User createUser(String prefix) {
+        User user = new User();
+        user.setLogin(prefix + "-" + RandomStringUtils.randomAlphanumeric(8).toLowerCase());
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail(user.getLogin() + "@localhost");
+        user.setLangKey("en");
+        user.getAuthorities().add(authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow());
+        return user;
+    }
+}
@@ -0,0 +1,51 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class HotKeySketchTest {
+
+    private static final int HOT_KEYS = 5;
+
+    @Test
+    void hottestKeysAreReportedFirst() {
+        HotKeySketch sketch = new HotKeySketch(HOT_KEYS, 1024);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // One lookup in two goes to the five hot keys, the others are spread over ten thousand cold ones
+            long key = random.nextBoolean() ? random.nextInt(HOT_KEYS) : HOT_KEYS + random.nextInt(10_000);
+            sketch.record(key);
+        }
+
+        List<Map.Entry<Object, Long>> hotKeys = sketch.hotKeys();
+
+        assertThat(hotKeys).extracting(Map.Entry::getKey).containsExactlyInAnyOrder(0L, 1L, 2L, 3L, 4L);
+        assertThat(hotKeys).extracting(Map.Entry::getValue).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    void estimatesFollowRecentLookups() {
+        HotKeySketch sketch = new HotKeySketch(1, 64);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.record("old");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            sketch.record("new");
+        }
+
+        assertThat(sketch.hotKeys().stream().map(Map.Entry::getKey).collect(Collectors.toList())).containsExactly("new");
+    }
+
+    @Test
+    void nullKeyIsIgnored() {
+        HotKeySketch sketch = new HotKeySketch(HOT_KEYS, 64);
+        sketch.record(null);
+
+        assertThat(sketch.hotKeys()).isEmpty();
+    }
+}
@@ -0,0 +1,213 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.config.FaultInjectingDataSource;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.repository.SuperHeroRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for {@link RefreshAheadCache}, with a database made slow or unreachable by
+ * {@link FaultInjectingDataSource}. The superHero and usersByLogin caches expire after a second, so that their
+ * entries can be served stale.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@Import(FaultInjectingDataSource.Configuration.class)
+@TestPropertySource(
+    properties = {
+        "application.cache.regions[superHero].time-to-live-seconds=1",
+        "application.cache.regions[usersByLogin].time-to-live-seconds=1",
+        "application.cache.refresh-ahead.max-stale-seconds=60",
+    }
+)
+class RefreshAheadCacheIT {
+
+    private static final long TIME_TO_LIVE_MILLIS = 1000;
+
+    private static final String OLD_NAME = "Stale hero";
+    private static final String NEW_NAME = "Fresh hero";
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private FaultInjectingDataSource database;
+
+    private ExecutorService executor;
+
+    private SuperHero superHero;
+
+    @BeforeEach
+    public void init() throws SQLException {
+        database = dataSource.unwrap(FaultInjectingDataSource.class);
+        executor = Executors.newCachedThreadPool();
+        superHero = superHeroRepository.saveAndFlush(new SuperHero().name(OLD_NAME).age(0).superpower("Staleness"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        database.reset();
+        executor.shutdownNow();
+        superHeroRepository.findById(superHero.getId()).ifPresent(superHeroRepository::delete);
+    }
+
+    @Test
+    void staleSuperHeroIsServedWhileTheDatabaseIsUnreachable() throws Exception {
+        mockMvc.perform(get("/api/super-heroes/{id}", superHero.getId())).andExpect(status().isOk());
+        Thread.sleep(TIME_TO_LIVE_MILLIS + 100);
+
+        database.setUnreachable(true);
+        mockMvc
+            .perform(get("/api/super-heroes/{id}", superHero.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(OLD_NAME))
+            .andExpect(header().string(HttpHeaders.WARNING, "110 - \"Response is Stale\""))
+            .andExpect(header().exists(HttpHeaders.AGE));
+
+        database.setUnreachable(false);
+        mockMvc
+            .perform(get("/api/super-heroes/{id}", superHero.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.WARNING));
+    }
+
+    @Test
+    @WithMockUser("user")
+    void staleUserIsServedWhileTheDatabaseIsUnreachable() throws Exception {
+        mockMvc.perform(get("/api/account")).andExpect(status().isOk());
+        Thread.sleep(TIME_TO_LIVE_MILLIS + 100);
+
+        database.setUnreachable(true);
+        mockMvc
+            .perform(get("/api/account"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value("user"))
+            .andExpect(header().exists(HttpHeaders.WARNING));
+    }
+
+    @Test
+    void staleValueIsServedWhileTheDatabaseIsSlow() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RefreshAheadCache cache = new RefreshAheadCache(
+            new ConcurrentMapCache("slow"),
+            Duration.ofMillis(100),
+            Duration.ofMillis(200),
+            Duration.ofMinutes(1),
+            Duration.ofMillis(100),
+            executor,
+            meterRegistry,
+            new HotKeySketch(10, 64)
+        );
+        Callable<String> loader = () -> superHeroRepository.findById(superHero.getId()).map(SuperHero::getName).orElse(null);
+        assertThat(cache.get(superHero.getId(), loader)).isEqualTo(OLD_NAME);
+        superHeroRepository.saveAndFlush(superHeroRepository.findById(superHero.getId()).orElseThrow().name(NEW_NAME));
+        Thread.sleep(300);
+
+        database.setDelay(Duration.ofSeconds(2));
+        long start = System.nanoTime();
+        assertThat(cache.get(superHero.getId(), loader)).isEqualTo(OLD_NAME);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(meterRegistry.get(RefreshAheadCache.METER_NAME).counter().count()).isEqualTo(1);
+
+        // The slow reload is still running, and is cached once done
+        database.reset();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!NEW_NAME.equals(cache.get(superHero.getId(), String.class)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(cache.get(superHero.getId(), loader)).isEqualTo(NEW_NAME);
+    }
+
+    @Test
+    void entryIsReloadedAheadOfItsExpiry() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(
+            new ConcurrentMapCache("refreshAhead"),
+            Duration.ofMillis(50),
+            Duration.ofMinutes(1),
+            Duration.ofMinutes(1),
+            Duration.ofMillis(100),
+            executor,
+            new SimpleMeterRegistry(),
+            new HotKeySketch(10, 64)
+        );
+        AtomicReference<String> value = new AtomicReference<>(OLD_NAME);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            return value.get();
+        };
+        assertThat(cache.get("key", loader)).isEqualTo(OLD_NAME);
+        value.set(NEW_NAME);
+        Thread.sleep(100);
+
+        // Served right away, while it is reloaded in the background
+        assertThat(cache.get("key", loader)).isEqualTo(OLD_NAME);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!NEW_NAME.equals(cache.get("key", String.class)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.get("key", loader)).isEqualTo(NEW_NAME);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void entryPastTheMaxStaleWindowIsNotServed() throws Exception {
+        RefreshAheadCache cache = new RefreshAheadCache(
+            new ConcurrentMapCache("maxStale"),
+            Duration.ofMillis(25),
+            Duration.ofMillis(50),
+            Duration.ofMillis(50),
+            Duration.ofMillis(100),
+            executor,
+            new SimpleMeterRegistry(),
+            new HotKeySketch(10, 64)
+        );
+        assertThat(cache.get("key", () -> OLD_NAME)).isEqualTo(OLD_NAME);
+        Thread.sleep(150);
+
+        assertThatThrownBy(() ->
+                cache.get(
+                    "key",
+                    () -> {
+                        throw new DataAccessResourceFailureException("Database is unreachable");
+                    }
+                )
+            )
+            .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+}
@@ -0,0 +1,134 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class RefreshAheadCacheTest {
+
+    private static final int CALLERS = 8;
+
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(1);
+
+    private final List<Runnable> reloads = new ArrayList<>();
+
+    private RefreshAheadCache cache;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        cache =
+            new RefreshAheadCache(
+                new ConcurrentMapCache("test"),
+                REFRESH_AFTER,
+                Duration.ofMinutes(2),
+                Duration.ofMinutes(1),
+                Duration.ofMillis(100),
+                reloads::add,
+                new SimpleMeterRegistry(),
+                new HotKeySketch(10, 64)
+            );
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reloadStartedBeforeAnEvictionIsNotCached() {
+        long loadedAt = System.currentTimeMillis() - REFRESH_AFTER.toMillis() - 1;
+        cache.restore(new RefreshAheadCache.StampedEntry("key", "old", loadedAt));
+
+        // The entry is due for a reload, which reads the row before the write
+        assertThat(cache.get("key", () -> "before write")).isEqualTo("old");
+        assertThat(reloads).hasSize(1);
+        cache.evict("key");
+        reloads.get(0).run();
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.get("key", () -> "after write")).isEqualTo("after write");
+        assertThat(cache.get("key", String.class)).isEqualTo("after write");
+    }
+
+    @Test
+    void loadStartedBeforeAClearIsNotCached() {
+        assertThat(
+            cache.get(
+                "key",
+                () -> {
+                    cache.clear();
+                    return "before write";
+                }
+            )
+        )
+            .isEqualTo("before write");
+
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    void concurrentMissesShareALoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return "value";
+        };
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> cache.get("key", loader)));
+        }
+        // Let the lookups reach the cache before the load completes
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.get("key", String.class)).isEqualTo("value");
+    }
+
+    @Test
+    void missAfterAnEvictionDoesNotWaitForAnEarlierLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> earlier = executor.submit(() ->
+            cache.get(
+                "key",
+                () -> {
+                    loading.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    return "before write";
+                }
+            )
+        );
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+        cache.evict("key");
+
+        assertThat(cache.get("key", () -> "after write")).isEqualTo("after write");
+        release.countDown();
+        assertThat(earlier.get(10, TimeUnit.SECONDS)).isEqualTo("before write");
+        assertThat(cache.get("key", String.class)).isEqualTo("after write");
+    }
+}
@@ -0,0 +1,125 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.test.hero.config.ApplicationProperties;
+import com.test.hero.web.rest.errors.BadRequestAlertException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Test class for the {@link RequestTimingAspect}.
+ */
+class RequestTimingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TimedController controller;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new TimedController());
+        proxyFactory.addAspect(new RequestTimingAspect(meterRegistry, new ApplicationProperties()));
+        controller = proxyFactory.getProxy();
+    }
+
+    @Test
+    void timesTheRequestByMethodAndStatus() {
+        controller.found();
+        controller.found();
+        controller.created();
+
+        Timer found = meterRegistry
+            .get(RequestTiming.DEFAULT_NAME)
+            .tags(RequestTimingAspect.METHOD_TAG, "TimedController.found", RequestTimingAspect.STATUS_TAG, "200")
+            .tag(RequestTimingAspect.OUTCOME_TAG, "SUCCESS")
+            .tag(RequestTimingAspect.EXCEPTION_TAG, "None")
+            .timer();
+        assertThat(found.count()).isEqualTo(2);
+        assertThat(found.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(
+            meterRegistry
+                .get(RequestTiming.DEFAULT_NAME)
+                .tags(RequestTimingAspect.METHOD_TAG, "TimedController.created", RequestTimingAspect.STATUS_TAG, "201")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void timesTheFailedRequestWithTheStatusOfTheException() {
+        assertThatThrownBy(() -> controller.badRequest()).isInstanceOf(BadRequestAlertException.class);
+        assertThatThrownBy(() -> controller.failed()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(
+            meterRegistry
+                .get(RequestTiming.DEFAULT_NAME)
+                .tags(RequestTimingAspect.METHOD_TAG, "TimedController.badRequest", RequestTimingAspect.STATUS_TAG, "400")
+                .tag(RequestTimingAspect.OUTCOME_TAG, "CLIENT_ERROR")
+                .tag(RequestTimingAspect.EXCEPTION_TAG, "BadRequestAlertException")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+        assertThat(
+            meterRegistry
+                .get(RequestTiming.DEFAULT_NAME)
+                .tags(RequestTimingAspect.METHOD_TAG, "TimedController.failed", RequestTimingAspect.STATUS_TAG, "UNKNOWN")
+                .tag(RequestTimingAspect.OUTCOME_TAG, "UNKNOWN")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void publishesTheServiceLevelObjectivesAsHistogramBuckets() {
+        controller.withObjectives();
+
+        Timer timer = meterRegistry.get("request.objectives").timer();
+        assertThat(timer.takeSnapshot().histogramCounts())
+            .extracting(CountAtBucket::bucket)
+            .containsExactly(50_000_000d, 200_000_000d);
+        assertThat(timer.takeSnapshot().histogramCounts()[1].count()).isEqualTo(1);
+    }
+
+    static class TimedController {
+
+        @RequestTiming
+        public ResponseEntity<String> found() {
+            return ResponseEntity.ok("found");
+        }
+
+        @RequestTiming
+        @ResponseStatus(HttpStatus.CREATED)
+        public String created() {
+            return "created";
+        }
+
+        @RequestTiming
+        public ResponseEntity<String> badRequest() {
+            throw new BadRequestAlertException("Bad request", "timed", "badrequest");
+        }
+
+        @RequestTiming
+        public ResponseEntity<String> failed() {
+            throw new IllegalStateException("Failed");
+        }
+
+        @RequestTiming(name = "request.objectives", slosMillis = { 50, 200 })
+        public ResponseEntity<String> withObjectives() {
+            return ResponseEntity.ok("objectives");
+        }
+    }
+}
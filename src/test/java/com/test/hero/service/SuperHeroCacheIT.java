@@ -0,0 +1,244 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.service.dto.SuperHeroDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SuperHeroCache}.
+ */
+@IntegrationTest
+class SuperHeroCacheIT {
+
+    private static final int READERS = 4;
+
+    private static final int UPDATES = 2000;
+
+    private static final int MAX_LOAD_NANOS = 200_000;
+
+    @Autowired
+    private SuperHeroService superHeroService;
+
+    @Autowired
+    private SuperHeroCache superHeroCache;
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SuperHeroDTO superHero;
+
+    @BeforeEach
+    public void init() {
+        SuperHeroDTO superHeroDTO = new SuperHeroDTO();
+        superHeroDTO.setName("Cached hero");
+        superHeroDTO.setAge(0);
+        superHeroDTO.setSuperpower("Coherence");
+        superHero = superHeroService.save(superHeroDTO);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        superHeroRepository.findById(superHero.getId()).ifPresent(superHeroRepository::delete);
+    }
+
+    @Test
+    void findOneIsInvalidatedByDelete() {
+        assertThat(superHeroService.findOne(superHero.getId())).isPresent();
+        assertThat(superHeroService.findOne(superHero.getId())).isPresent();
+
+        superHeroService.delete(superHero.getId());
+
+        assertThat(superHeroService.findOne(superHero.getId())).isEmpty();
+    }
+
+    @Test
+    void absentSuperHeroIsCachedUntilCreated() {
+        Long id = Long.MAX_VALUE - superHero.getId();
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(superHeroCache.get(id, () -> countedLoad(loads, Optional.empty()))).isEmpty();
+        assertThat(superHeroCache.get(id, () -> countedLoad(loads, Optional.empty()))).isEmpty();
+        assertThat(loads.get()).isEqualTo(1);
+
+        // What saving a superHero with this id would do
+        superHeroCache.invalidate(id);
+
+        assertThat(superHeroCache.get(id, () -> countedLoad(loads, Optional.of(superHero)))).contains(superHero);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void getAllOnlyLoadsTheMisses() {
+        Long id = superHero.getId();
+        // In another version stripe than the id, so that invalidating the id does not make it stale
+        Long absentId = -id;
+        superHeroCache.invalidateAll(List.of(id, absentId));
+        assertThat(superHeroCache.get(id, () -> Optional.of(superHero))).contains(superHero);
+
+        List<Set<Long>> loads = new ArrayList<>();
+        Function<Set<Long>, Map<Long, SuperHeroDTO>> loader = ids -> {
+            loads.add(ids);
+            return ids.contains(id) ? Map.of(id, superHero) : Map.of();
+        };
+        assertThat(superHeroCache.getAll(List.of(absentId, id), loader)).containsOnlyKeys(id);
+        assertThat(superHeroCache.getAll(List.of(absentId, id), loader)).containsOnlyKeys(id);
+        assertThat(loads).containsExactly(Set.of(absentId));
+
+        superHeroCache.invalidate(id);
+
+        assertThat(superHeroCache.getAll(List.of(absentId, id), loader)).containsEntry(id, superHero);
+        assertThat(loads).containsExactly(Set.of(absentId), Set.of(id));
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        Long id = superHero.getId();
+        superHeroCache.invalidate(id);
+        Counter coalesced = meterRegistry
+            .get(SingleFlight.METER_NAME)
+            .tag(SingleFlight.METER_CACHE_DIMENSION, SuperHeroCache.SUPER_HERO_CACHE)
+            .counter();
+        double coalescedBefore = coalesced.count();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<Optional<SuperHeroDTO>> loader = () -> {
+            loads.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(superHero);
+        };
+
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<Optional<SuperHeroDTO>>> futures = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                futures.add(readers.submit(() -> superHeroCache.get(id, loader)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalesced.count() < coalescedBefore + READERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            for (Future<Optional<SuperHeroDTO>> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS)).contains(superHero);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(coalesced.count()).isEqualTo(coalescedBefore + READERS - 1);
+        assertThat(superHeroCache.get(id, () -> countedLoad(loads, Optional.empty()))).contains(superHero);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void staleRepopulationIsRejected() {
+        SuperHeroDTO before = superHeroService.findOne(superHero.getId()).orElseThrow();
+        superHeroCache.invalidate(superHero.getId());
+
+        // A load which started before a write was committed, and finished after it
+        superHeroCache.get(
+            superHero.getId(),
+            () -> {
+                superHeroCache.invalidate(superHero.getId());
+                return Optional.of(before);
+            }
+        );
+
+        SuperHeroDTO after = new SuperHeroDTO(superHero.getId(), "Updated hero", 1, superHero.getSuperpower(), superHero.getVersion() + 1);
+        assertThat(superHeroCache.get(superHero.getId(), () -> Optional.of(after)).orElseThrow().getAge()).isEqualTo(1);
+    }
+
+    @Test
+    void noStaleReadAfterConcurrentUpdates() throws Exception {
+        // The database is replaced by a reference whose writes are visible to all threads as soon as they are done,
+        // and whose loads are slowed down at random, so that they often overlap a write
+        Long id = superHero.getId();
+        AtomicReference<SuperHeroDTO> database = new AtomicReference<>(superHero);
+        Supplier<Optional<SuperHeroDTO>> loader = () -> {
+            SuperHeroDTO loaded = database.get();
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(MAX_LOAD_NANOS));
+            return Optional.of(loaded);
+        };
+        superHeroCache.invalidate(id);
+
+        AtomicInteger committedAge = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong staleReads = new AtomicLong();
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                futures.add(
+                    readers.submit(() -> {
+                        while (!done.get()) {
+                            // Any read which starts after a write was committed and invalidated must see that write
+                            int expectedAge = committedAge.get();
+                            int age = superHeroCache.get(id, loader).orElseThrow().getAge();
+                            reads.incrementAndGet();
+                            if (age < expectedAge) {
+                                staleReads.incrementAndGet();
+                            }
+                        }
+                    })
+                );
+            }
+
+            for (int age = 1; age <= UPDATES; age++) {
+                database.set(new SuperHeroDTO(id, superHero.getName(), age, superHero.getSuperpower(), (long) age));
+                superHeroCache.invalidate(id);
+                committedAge.set(age);
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(MAX_LOAD_NANOS));
+            }
+            done.set(true);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            done.set(true);
+            readers.shutdownNow();
+        }
+
+        assertThat(reads.get()).isGreaterThan(UPDATES);
+        assertThat(staleReads.get()).isZero();
+        assertThat(superHeroCache.get(id, loader).orElseThrow().getAge()).isEqualTo(UPDATES);
+    }
+
+    private static Optional<SuperHeroDTO> countedLoad(AtomicInteger loads, Optional<SuperHeroDTO> superHero) {
+        loads.incrementAndGet();
+        return superHero;
+    }
+}
@@ -0,0 +1,148 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.config.FaultInjectingDataSource;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.repository.SuperHeroRepository;
+import java.sql.SQLException;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link SuperHeroIds}, which count the SQL statements issued for the lookups of superHeroes
+ * which do not exist, and insert rows without Hibernate.
+ */
+@IntegrationTest
+@Import(FaultInjectingDataSource.Configuration.class)
+@TestPropertySource(
+    properties = { "spring.jpa.properties.hibernate.generate_statistics=true", "application.cache.invalidation.enabled=true" }
+)
+class SuperHeroIdsIT {
+
+    @Autowired
+    private SuperHeroIds superHeroIds;
+
+    @Autowired
+    private SuperHeroService superHeroService;
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private FaultInjectingDataSource database;
+
+    private Statistics statistics;
+
+    private SuperHero superHero;
+
+    private Long insertedId;
+
+    @BeforeEach
+    public void init() throws SQLException {
+        database = dataSource.unwrap(FaultInjectingDataSource.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        superHero = superHeroRepository.saveAndFlush(new SuperHero().name("Existing hero").age(1).superpower("Membership"));
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        database.reset();
+        superHeroIds.load();
+        if (insertedId != null) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("delete from super_hero where id = ?", insertedId));
+        }
+        superHeroRepository.findById(superHero.getId()).ifPresent(superHeroRepository::delete);
+    }
+
+    @Test
+    void absentSuperHeroIsNotLookedUp() {
+        Long absentId = superHero.getId() + 1_000_000;
+
+        assertThat(superHeroService.findOne(absentId)).isEmpty();
+        assertThat(superHeroService.findAllById(List.of(absentId, absentId + 1))).isEmpty();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void insertedSuperHeroMightExist() {
+        assertThat(superHeroIds.mightExist(superHero.getId())).isTrue();
+        assertThat(superHeroService.findOne(superHero.getId())).isPresent();
+    }
+
+    @Test
+    void deletedSuperHeroIsAbsentOnceCommitted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            superHeroService.delete(superHero.getId());
+            assertThat(superHeroIds.mightExist(superHero.getId())).isTrue();
+        });
+
+        assertThat(superHeroIds.mightExist(superHero.getId())).isFalse();
+        assertThat(superHeroService.findOne(superHero.getId())).isEmpty();
+    }
+
+    @Test
+    void rolledBackDeleteLeavesTheSuperHero() {
+        transactionTemplate.executeWithoutResult(status -> {
+            superHeroService.delete(superHero.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(superHeroIds.mightExist(superHero.getId())).isTrue();
+        assertThat(superHeroService.findOne(superHero.getId())).isPresent();
+    }
+
+    @Test
+    void superHeroInsertedWithoutHibernateIsFoundOnceLoaded() {
+        insertedId = superHero.getId() + 1_000_000;
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update("insert into super_hero (id, name, age, superpower) values (?, 'Scripted', 1, 'Scripting')", insertedId)
+        );
+
+        assertThat(superHeroIds.mightExist(insertedId)).isFalse();
+
+        superHeroIds.load();
+
+        assertThat(superHeroIds.mightExist(insertedId)).isTrue();
+        assertThat(superHeroService.findOne(insertedId)).isPresent();
+    }
+
+    @Test
+    void failedLoadLetsEveryIdExist() {
+        Long absentId = superHero.getId() + 1_000_000;
+        database.setUnreachable(true);
+
+        superHeroIds.load();
+
+        assertThat(superHeroIds.mightExist(absentId)).isTrue();
+        database.reset();
+        superHeroIds.load();
+        assertThat(superHeroIds.mightExist(absentId)).isFalse();
+        assertThat(superHeroIds.mightExist(superHero.getId())).isTrue();
+    }
+}
@@ -0,0 +1,32 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.test.hero.config.ApplicationProperties;
+import com.test.hero.repository.SuperHeroRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class SuperHeroIdsTest {
+
+    private final SuperHeroRepository superHeroRepository = mock(SuperHeroRepository.class);
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void everyIdMightExistWithoutTheInvalidationBus() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().getInvalidation().setEnabled(false);
+        SuperHeroIds superHeroIds = new SuperHeroIds(superHeroRepository, transactionManager, applicationProperties);
+
+        superHeroIds.load();
+        superHeroIds.add(1L);
+        superHeroIds.remove(2L);
+
+        assertThat(superHeroIds.mightExist(2L)).isTrue();
+        assertThat(superHeroIds.mightExist(3L)).isTrue();
+        verifyNoInteractions(superHeroRepository, transactionManager);
+    }
+}
@@ -0,0 +1,117 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.service.dto.SuperHeroDTO;
+import com.test.hero.service.mapper.SuperHeroMapper;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Latency and allocation comparison, per page, of reading {@link SuperHero} entities and mapping them with
+ * {@link SuperHeroMapper} against selecting {@link SuperHeroDTO} projections straight from the columns.
+ * <p>
+ * Both figures are logged. The projections, which skip the managed entities and their mapping, must allocate less per
+ * page than the entities; the timings depend too much on the build machine to be asserted.
+ */
+@IntegrationTest
+class SuperHeroProjectionBenchmarkIT {
+
+    private static final int ROWS = 500;
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int ITERATIONS = 50;
+
+    private static final int WARM_UP_ITERATIONS = 20;
+
+    private final Logger log = LoggerFactory.getLogger(SuperHeroProjectionBenchmarkIT.class);
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private SuperHeroMapper superHeroMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        List<SuperHero> superHeroes = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            superHeroes.add(new SuperHero().name("Benchmark hero " + i).age(i).superpower("Projection"));
+        }
+        superHeroRepository.saveAll(superHeroes).forEach(superHero -> createdIds.add(superHero.getId()));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        superHeroRepository.deleteAllByIdInBatch(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void compareEntityAndProjectionPageReads() {
+        Pageable pageable = PageRequest.of(1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "id"));
+        Supplier<Page<SuperHeroDTO>> entityRead = () ->
+            superHeroRepository.findAllWithTotalCount(null, pageable, SuperHero.class).map(superHeroMapper::toDto);
+        Supplier<Page<SuperHeroDTO>> projectionRead = () -> superHeroRepository.findAllWithTotalCount(null, pageable, SuperHeroDTO.class);
+
+        measure(entityRead, WARM_UP_ITERATIONS);
+        measure(projectionRead, WARM_UP_ITERATIONS);
+        long[] entity = measure(entityRead, ITERATIONS);
+        long[] projection = measure(projectionRead, ITERATIONS);
+
+        log.info(
+            "Read {} pages of {} superHeroes: entities {} us and {} KB per page, projections {} us and {} KB per page",
+            ITERATIONS,
+            PAGE_SIZE,
+            entity[0] / ITERATIONS / 1000,
+            entity[1] / ITERATIONS / 1024,
+            projection[0] / ITERATIONS / 1000,
+            projection[1] / ITERATIONS / 1024
+        );
+        assertThat(projectionRead.get().getContent()).hasSize(PAGE_SIZE).isEqualTo(entityRead.get().getContent());
+        assertThat(projection[1]).isLessThan(entity[1]);
+    }
+
+    /**
+     * @return the elapsed nanoseconds and the bytes allocated by the current thread, over all the iterations.
+     */
+    private long[] measure(Supplier<Page<SuperHeroDTO>> read, int iterations) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            // One transaction per page, as in a request
+            readOnlyTransaction.executeWithoutResult(status -> read.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        return new long[] { elapsed, threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore };
+    }
+}
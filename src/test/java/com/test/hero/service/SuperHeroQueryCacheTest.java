@@ -0,0 +1,70 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class SuperHeroQueryCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SuperHeroQueryCache cache;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SuperHeroQueryCache(new ConcurrentMapCacheManager(SuperHeroQueryCache.SUPER_HEROES_BY_CRITERIA_CACHE), meterRegistry);
+    }
+
+    @AfterEach
+    public void teardown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void countsTheHitsAndMissesPerQuery() {
+        assertThat(cache.get("count", null, null, this::load)).isEqualTo(1);
+        assertThat(cache.get("count", null, null, this::load)).isEqualTo(1);
+        assertThat(cache.get("count", null, null, this::load)).isEqualTo(1);
+        assertThat(cache.get("page", null, null, this::load)).isEqualTo(2);
+
+        assertThat(count("count", "hit")).isEqualTo(2);
+        assertThat(count("count", "miss")).isEqualTo(1);
+        assertThat(count("page", "hit")).isZero();
+        assertThat(count("page", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void readWriteTransactionBypassesTheCache() {
+        assertThat(cache.get("count", null, null, this::load)).isEqualTo(1);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(cache.get("count", null, null, this::load)).isEqualTo(2);
+        assertThat(cache.get("count", null, null, this::load)).isEqualTo(3);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(cache.get("count", null, null, this::load)).isEqualTo(1);
+    }
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+
+    private double count(String query, String result) {
+        return meterRegistry
+            .get(SuperHeroQueryCache.METER_NAME)
+            .tag(SuperHeroQueryCache.METER_QUERY_DIMENSION, query)
+            .tag(SuperHeroQueryCache.METER_RESULT_DIMENSION, result)
+            .counter()
+            .count();
+    }
+}
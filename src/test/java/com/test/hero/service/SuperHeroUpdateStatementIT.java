@@ -0,0 +1,108 @@
+package com.test.hero.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.test.hero.IntegrationTest;
+import com.test.hero.domain.SuperHero;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.service.dto.SuperHeroDTO;
+import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the single statement updates of {@link SuperHeroService}, which count the SQL statements
+ * issued for each write. The second level cache is enabled, to check that it does not serve a stale superHero.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+    }
+)
+class SuperHeroUpdateStatementIT {
+
+    @Autowired
+    private SuperHeroService superHeroService;
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private SuperHero superHero;
+
+    @BeforeEach
+    public void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        superHero = superHeroRepository.save(new SuperHero().name("Updated hero").age(1).superpower("Single statement"));
+        // Puts the superHero in the second level cache
+        superHeroRepository.findById(superHero.getId());
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        superHeroRepository.deleteById(superHero.getId());
+    }
+
+    @Test
+    void updateIssuesOneStatement() {
+        SuperHeroDTO superHeroDTO = new SuperHeroDTO(superHero.getId(), "Renamed hero", 2, null, null);
+
+        Optional<SuperHeroDTO> result = superHeroService.update(superHeroDTO);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(result).get().extracting(SuperHeroDTO::getName).isEqualTo("Renamed hero");
+        assertThat(result).get().extracting(SuperHeroDTO::getSuperpower).isNull();
+        assertThat(result).get().extracting(SuperHeroDTO::getVersion).isEqualTo(superHero.getVersion() + 1);
+        assertThat(superHeroRepository.findById(superHero.getId())).get().extracting(SuperHero::getName).isEqualTo("Renamed hero");
+    }
+
+    @Test
+    void partialUpdateIssuesOneStatement() {
+        SuperHeroDTO superHeroDTO = new SuperHeroDTO();
+        superHeroDTO.setId(superHero.getId());
+        superHeroDTO.setAge(3);
+
+        Optional<SuperHeroDTO> result = superHeroService.partialUpdate(superHeroDTO);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(result).get().extracting(SuperHeroDTO::getAge).isEqualTo(3);
+        assertThat(result).get().extracting(SuperHeroDTO::getName).isEqualTo("Updated hero");
+        assertThat(result).get().extracting(SuperHeroDTO::getVersion).isEqualTo(superHero.getVersion() + 1);
+        assertThat(superHeroRepository.findById(superHero.getId())).get().extracting(SuperHero::getAge).isEqualTo(3);
+    }
+
+    @Test
+    void updateOfMissingSuperHeroIsEmpty() {
+        SuperHeroDTO superHeroDTO = new SuperHeroDTO(Long.MAX_VALUE, "Missing hero", 2, null, null);
+
+        assertThat(superHeroService.update(superHeroDTO)).isEmpty();
+        assertThat(superHeroService.partialUpdate(superHeroDTO)).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void updateOfStaleVersionFails() {
+        SuperHeroDTO superHeroDTO = new SuperHeroDTO(superHero.getId(), "Stale hero", 2, null, superHero.getVersion() + 1);
+
+        assertThatThrownBy(() -> superHeroService.update(superHeroDTO)).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(superHeroRepository.findById(superHero.getId())).get().extracting(SuperHero::getName).isEqualTo("Updated hero");
+
+        superHeroDTO.setVersion(superHero.getVersion());
+        assertThat(superHeroService.update(superHeroDTO)).get().extracting(SuperHeroDTO::getName).isEqualTo("Stale hero");
+    }
+}
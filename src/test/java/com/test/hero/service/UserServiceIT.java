@@ -50,6 +50,9 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RefreshAheadCacheResolver refreshAheadCacheResolver;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
@@ -182,4 +185,27 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional
+    void assertThatUserLoadedBeforeAnUpdateIsNotCachedAfterIt() {
+        userRepository.saveAndFlush(user);
+        RefreshAheadCache cache = refreshAheadCacheResolver.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        cache.evict(DEFAULT_LOGIN);
+
+        User loaded = cache.get(
+            DEFAULT_LOGIN,
+            () -> {
+                User activated = userRepository.findOneByLogin(DEFAULT_LOGIN).orElseThrow();
+                // The user is deactivated while its load is in flight
+                AdminUserDTO userDTO = new AdminUserDTO(activated);
+                userDTO.setActivated(false);
+                userService.updateUser(userDTO);
+                return activated;
+            }
+        );
+
+        assertThat(loaded.getLogin()).isEqualTo(DEFAULT_LOGIN);
+        assertThat(cache.get(DEFAULT_LOGIN)).isNull();
+    }
 }
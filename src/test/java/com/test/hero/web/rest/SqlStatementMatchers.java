@@ -0,0 +1,39 @@
+package com.test.hero.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.test.hero.config.SqlStatementStatistics;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Matchers of the SQL statements executed by a request, as counted by the application.
+ * <p>
+ * Statements deferred to the flush of the test transaction are not executed by the request, and are not counted.
+ */
+public final class SqlStatementMatchers {
+
+    private SqlStatementMatchers() {}
+
+    /**
+     * @param expected the number of statements.
+     * @return a matcher checking that the request executed exactly this number of statements, a batch counting as one.
+     */
+    public static ResultMatcher sqlStatements(int expected) {
+        return result -> assertThat(statistics(result).getStatements()).as("SQL statements executed by the request").isEqualTo(expected);
+    }
+
+    /**
+     * @param expected the number of rows.
+     * @return a matcher checking that the statements of the request read or wrote exactly this number of rows.
+     */
+    public static ResultMatcher sqlRows(long expected) {
+        return result -> assertThat(statistics(result).getRows()).as("rows read or written by the request").isEqualTo(expected);
+    }
+
+    private static SqlStatementStatistics statistics(MvcResult result) {
+        Object statistics = result.getRequest().getAttribute(SqlStatementStatistics.REQUEST_ATTRIBUTE);
+        assertThat(statistics).as("SQL statement statistics of the request").isInstanceOf(SqlStatementStatistics.class);
+        return (SqlStatementStatistics) statistics;
+    }
+}
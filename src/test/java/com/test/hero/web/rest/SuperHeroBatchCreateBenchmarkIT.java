@@ -0,0 +1,125 @@
+package com.test.hero.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.hero.IntegrationTest;
+import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.service.dto.SuperHeroDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Throughput comparison of the batch create endpoint of {@link SuperHeroResource} against the single create one.
+ * <p>
+ * The rows/sec of both paths are logged. The batch create, which inserts its rows with JDBC batches in a single
+ * request, must be at least {@value #MIN_SPEEDUP} times faster: a loose bound, which holds on a slow build machine, but
+ * not if the rows are inserted one by one.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SuperHeroBatchCreateBenchmarkIT {
+
+    private static final int ROWS = 200;
+
+    private static final int WARM_UP_ROWS = 20;
+
+    private static final int MIN_SPEEDUP = 2;
+
+    private static final String ENTITY_API_URL = "/api/super-heroes";
+
+    private final Logger log = LoggerFactory.getLogger(SuperHeroBatchCreateBenchmarkIT.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private SuperHeroRepository superHeroRepository;
+
+    @Autowired
+    private MockMvc restSuperHeroMockMvc;
+
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        superHeroRepository.deleteAllByIdInBatch(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void compareBatchAndSingleCreateThroughput() throws Exception {
+        // Warm up both paths before measuring
+        createOneByOne(WARM_UP_ROWS);
+        createInBatch(WARM_UP_ROWS);
+
+        long singleNanos = createOneByOne(ROWS);
+        long batchNanos = createInBatch(ROWS);
+
+        double singleRowsPerSecond = ROWS / (singleNanos / 1e9);
+        double batchRowsPerSecond = ROWS / (batchNanos / 1e9);
+        log.info(
+            "Created {} superHeroes: single create {} rows/sec, batch create {} rows/sec (x{})",
+            ROWS,
+            String.format("%.0f", singleRowsPerSecond),
+            String.format("%.0f", batchRowsPerSecond),
+            String.format("%.1f", batchRowsPerSecond / singleRowsPerSecond)
+        );
+        assertThat(superHeroRepository.findAllById(createdIds)).hasSize(2 * (ROWS + WARM_UP_ROWS));
+        assertThat(batchRowsPerSecond).isGreaterThan(MIN_SPEEDUP * singleRowsPerSecond);
+    }
+
+    private long createOneByOne(int rows) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            MvcResult result = restSuperHeroMockMvc
+                .perform(
+                    post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(newSuperHero(i)))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+            createdIds.add(objectMapper.readValue(result.getResponse().getContentAsByteArray(), SuperHeroDTO.class).getId());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long createInBatch(int rows) throws Exception {
+        List<SuperHeroDTO> superHeroDTOs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            superHeroDTOs.add(newSuperHero(i));
+        }
+        long start = System.nanoTime();
+        MvcResult result = restSuperHeroMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsBytes(superHeroDTOs))
+            )
+            .andExpect(status().isCreated())
+            .andReturn();
+        long elapsed = System.nanoTime() - start;
+        createdIds.addAll(Arrays.asList(objectMapper.readValue(result.getResponse().getContentAsByteArray(), Long[].class)));
+        return elapsed;
+    }
+
+    private static SuperHeroDTO newSuperHero(int index) {
+        SuperHeroDTO superHeroDTO = new SuperHeroDTO();
+        superHeroDTO.setName("Benchmark hero " + index);
+        superHeroDTO.setAge(index);
+        superHeroDTO.setSuperpower("Throughput");
+        return superHeroDTO;
+    }
+}
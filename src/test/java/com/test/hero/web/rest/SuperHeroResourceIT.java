@@ -1,27 +1,42 @@
 package com.test.hero.web.rest;
 
+import static com.test.hero.web.rest.SqlStatementMatchers.sqlStatements;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.test.hero.IntegrationTest;
+import com.test.hero.config.ApplicationProperties;
 import com.test.hero.domain.SuperHero;
 import com.test.hero.repository.SuperHeroRepository;
+import com.test.hero.service.SuperHeroQueryCache;
 import com.test.hero.service.criteria.SuperHeroCriteria;
 import com.test.hero.service.dto.SuperHeroDTO;
 import com.test.hero.service.mapper.SuperHeroMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -60,6 +75,15 @@ class SuperHeroResourceIT {
     @Autowired
     private MockMvc restSuperHeroMockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     private SuperHero superHero;
 
     /**
@@ -86,6 +110,8 @@ class SuperHeroResourceIT {
 
     @BeforeEach
     public void initTest() {
+        // Entities are inserted through the repository, which does not invalidate the query cache
+        cacheManager.getCache(SuperHeroQueryCache.SUPER_HEROES_BY_CRITERIA_CACHE).clear();
         superHero = createEntity(em);
     }
 
@@ -108,6 +134,83 @@ class SuperHeroResourceIT {
         assertThat(testSuperHero.getSuperpower()).isEqualTo(DEFAULT_SUPERPOWER);
     }
 
+    @Test
+    void createSuperHeroes() throws Exception {
+        // The batch is saved in its own transactions, so it has to be cleaned up
+        int databaseSizeBeforeCreate = superHeroRepository.findAll().size();
+        List<SuperHeroDTO> superHeroDTOs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            superHeroDTOs.add(superHeroMapper.toDto(createEntity(em).age(i)));
+        }
+
+        MvcResult result = restSuperHeroMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(superHeroDTOs))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$").value(hasSize(3)))
+            .andReturn();
+        Long[] ids = new ObjectMapper().readValue(result.getResponse().getContentAsByteArray(), Long[].class);
+        try {
+            // Validate the SuperHeroes in the database, in the requested order
+            assertThat(superHeroRepository.findAll()).hasSize(databaseSizeBeforeCreate + 3);
+            for (int i = 0; i < ids.length; i++) {
+                assertThat(superHeroRepository.findById(ids[i])).get().extracting(SuperHero::getAge).isEqualTo(i);
+            }
+        } finally {
+            superHeroRepository.deleteAllById(Arrays.asList(ids));
+        }
+    }
+
+    @Test
+    @Transactional
+    void createSuperHeroesWithExistingId() throws Exception {
+        int databaseSizeBeforeCreate = superHeroRepository.findAll().size();
+        SuperHeroDTO existing = superHeroMapper.toDto(createEntity(em));
+        existing.setId(1L);
+        List<SuperHeroDTO> superHeroDTOs = Arrays.asList(superHeroMapper.toDto(createEntity(em)), existing);
+
+        // An entity with an existing ID cannot be created, so the whole batch must be rejected
+        restSuperHeroMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(superHeroDTOs))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(superHeroRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void createSuperHeroesOverTheMaxSize() throws Exception {
+        int databaseSizeBeforeCreate = superHeroRepository.findAll().size();
+        int maxSize = applicationProperties.getBatch().getMaxSize();
+        applicationProperties.getBatch().setMaxSize(1);
+        try {
+            List<SuperHeroDTO> superHeroDTOs = Arrays.asList(
+                superHeroMapper.toDto(createEntity(em)),
+                superHeroMapper.toDto(createEntity(em))
+            );
+
+            restSuperHeroMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(superHeroDTOs))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("error.batchtoolarge"));
+        } finally {
+            applicationProperties.getBatch().setMaxSize(maxSize);
+        }
+
+        assertThat(superHeroRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void createSuperHeroWithExistingId() throws Exception {
@@ -137,6 +240,7 @@ class SuperHeroResourceIT {
         restSuperHeroMockMvc
             .perform(get(ENTITY_API_URL + "?sort=id,desc"))
             .andExpect(status().isOk())
+            .andExpect(sqlStatements(1))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(superHero.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME)))
@@ -161,6 +265,127 @@ class SuperHeroResourceIT {
             .andExpect(jsonPath("$.superpower").value(DEFAULT_SUPERPOWER));
     }
 
+    @Test
+    @Transactional
+    void getSuperHeroWithMatchingETag() throws Exception {
+        // Initialize the database
+        superHeroRepository.saveAndFlush(superHero);
+
+        String eTag = restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL_ID, superHero.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + superHero.getVersion() + "\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL_ID, superHero.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().string(""));
+        String otherETag = "\"" + (superHero.getVersion() + 1) + "\"";
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL_ID, superHero.getId()).header(HttpHeaders.IF_NONE_MATCH, otherETag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @Transactional
+    void getAllSuperHeroesWithMatchingETag() throws Exception {
+        // Initialize the database
+        superHeroRepository.saveAndFlush(superHero);
+        String url = ENTITY_API_URL + "?id.equals=" + superHero.getId();
+
+        String eTag = restSuperHeroMockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restSuperHeroMockMvc
+            .perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        restSuperHeroMockMvc
+            .perform(get(url + "&count=false").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+
+        // A bulk update bumps the version, so the list is sent again
+        SuperHeroDTO patch = new SuperHeroDTO();
+        patch.setAge(UPDATED_AGE);
+        restSuperHeroMockMvc
+            .perform(patch(url).contentType("application/merge-patch+json").content(TestUtil.convertObjectToJsonBytes(patch)))
+            .andExpect(status().isOk());
+        // The test transaction is never committed, so the query cache is not invalidated by the update
+        cacheManager.getCache(SuperHeroQueryCache.SUPER_HEROES_BY_CRITERIA_CACHE).clear();
+        restSuperHeroMockMvc
+            .perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+            .andExpect(jsonPath("$.[*].age").value(contains(UPDATED_AGE)));
+    }
+
+    @Test
+    @Transactional
+    void getSuperHeroesByIds() throws Exception {
+        // Initialize the database
+        SuperHero first = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero second = superHeroRepository.saveAndFlush(createUpdatedEntity(em));
+        String ids = second.getId() + "," + Long.MAX_VALUE + "," + first.getId() + "," + second.getId();
+
+        // Get the superHeroes in the requested order, without the missing one
+        String eTag = restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?ids=" + ids))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.[*].id").value(contains(second.getId().intValue(), first.getId().intValue())))
+            .andExpect(jsonPath("$.[*].name").value(contains(UPDATED_NAME, DEFAULT_NAME)))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restSuperHeroMockMvc
+            .perform(post(ENTITY_API_URL + "/by-ids").contentType(MediaType.APPLICATION_JSON).content("[" + ids + "]"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(jsonPath("$.[*].id").value(contains(second.getId().intValue(), first.getId().intValue())));
+
+        // The ids in the body are answered as the same ids in the URL
+        restSuperHeroMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/by-ids")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[" + ids + "]")
+                    .header(HttpHeaders.IF_NONE_MATCH, "W/" + eTag)
+            )
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        restSuperHeroMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/by-ids")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[" + first.getId() + "]")
+                    .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    @Transactional
+    void getSuperHeroesByTooManyIds() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+        restSuperHeroMockMvc
+            .perform(post(ENTITY_API_URL + "/by-ids").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(ids)))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getSuperHeroesByIdFiltering() throws Exception {
@@ -440,6 +665,313 @@ class SuperHeroResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getAllSuperHeroesReturnsTotalCount() throws Exception {
+        // Initialize the database
+        SuperHero first = superHeroRepository.saveAndFlush(createEntity(em));
+        superHeroRepository.saveAndFlush(createEntity(em));
+        superHeroRepository.saveAndFlush(createEntity(em));
+        String filter = "&id.greaterThanOrEqual=" + first.getId();
+
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&page=0" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[*].id").value(hasSize(2)));
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&page=1" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[*].id").value(hasSize(1)));
+        // Past the last page, the total still has to be counted
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&page=5" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void getAllSuperHeroesWithoutCount() throws Exception {
+        // Initialize the database
+        SuperHero first = superHeroRepository.saveAndFlush(createEntity(em));
+        superHeroRepository.saveAndFlush(createEntity(em));
+        superHeroRepository.saveAndFlush(createEntity(em));
+        String filter = "&count=false&id.greaterThanOrEqual=" + first.getId();
+
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&page=0" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("X-Has-Next-Page", "true"))
+            .andExpect(header().string("Link", not(containsString("rel=\"last\""))))
+            .andExpect(jsonPath("$.[*].id").value(hasSize(2)));
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&page=1" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Has-Next-Page", "false"))
+            .andExpect(header().string("Link", containsString("rel=\"prev\"")))
+            .andExpect(jsonPath("$.[*].id").value(hasSize(1)));
+    }
+
+    @Test
+    @Transactional
+    void getAllSuperHeroesWithKeysetPagination() throws Exception {
+        // Initialize the database
+        SuperHero first = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero second = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero third = superHeroRepository.saveAndFlush(createEntity(em));
+
+        // Get the first page
+        String filter = "&name.equals=" + DEFAULT_NAME + "&id.greaterThanOrEqual=" + first.getId();
+        MvcResult result = restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&after=" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())))
+            .andReturn();
+        String cursor = result.getResponse().getHeader("X-Next-Cursor");
+
+        // Get the second and last page
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&after=" + cursor + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllSuperHeroesWithKeysetPaginationOnNullableProperty() throws Exception {
+        // Initialize the database
+        SuperHero older = superHeroRepository.saveAndFlush(createEntity(em).age(UPDATED_AGE));
+        SuperHero younger = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero unknownAge = superHeroRepository.saveAndFlush(createEntity(em).age(null));
+        String filter = "&id.greaterThanOrEqual=" + older.getId();
+
+        MvcResult result = restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=age,asc&size=1&after=" + filter))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(younger.getId().intValue())))
+            .andReturn();
+        result =
+            restSuperHeroMockMvc
+                .perform(get(ENTITY_API_URL + "?size=1&after=" + result.getResponse().getHeader("X-Next-Cursor") + filter))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(older.getId().intValue())))
+                .andReturn();
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?size=1&after=" + result.getResponse().getHeader("X-Next-Cursor") + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(unknownAge.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllSuperHeroesWithKeysetPaginationAcrossNullValues() throws Exception {
+        // Initialize the database
+        SuperHero first = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero second = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero firstUnknownAge = superHeroRepository.saveAndFlush(createEntity(em).age(null));
+        SuperHero secondUnknownAge = superHeroRepository.saveAndFlush(createEntity(em).age(null));
+        String filter = "&id.greaterThanOrEqual=" + first.getId();
+
+        // The first page ends with the first null value, both in descending order of id
+        MvcResult result = restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=age,desc&size=3&after=" + filter))
+            .andExpect(status().isOk())
+            .andExpect(
+                jsonPath("$.[*].id")
+                    .value(contains(second.getId().intValue(), first.getId().intValue(), secondUnknownAge.getId().intValue()))
+            )
+            .andReturn();
+        restSuperHeroMockMvc
+            .perform(get(ENTITY_API_URL + "?size=3&after=" + result.getResponse().getHeader("X-Next-Cursor") + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Next-Cursor"))
+            .andExpect(jsonPath("$.[*].id").value(contains(firstUnknownAge.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllSuperHeroesWithInvalidCursor() throws Exception {
+        restSuperHeroMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+        restSuperHeroMockMvc.perform(get(ENTITY_API_URL + "?sort=unknown,asc&after=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportSuperHeroes() throws Exception {
+        // The export is streamed from another thread, so the data must be committed
+        superHero.setName("Export;\"Hero\"");
+        superHeroRepository.saveAndFlush(superHero);
+        try {
+            String filter = "&id.equals=" + superHero.getId();
+
+            MvcResult result = restSuperHeroMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv" + filter))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restSuperHeroMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(
+                    content()
+                        .string(
+                            "id;name;age;superpower\n" +
+                            superHero.getId() +
+                            ";\"Export;\"\"Hero\"\"\";" +
+                            DEFAULT_AGE +
+                            ";" +
+                            DEFAULT_SUPERPOWER +
+                            "\n"
+                        )
+                );
+
+            result =
+                restSuperHeroMockMvc
+                    .perform(get(ENTITY_API_URL + "/export?format=ndjson" + filter))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            restSuperHeroMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(jsonPath("$.id").value(superHero.getId().intValue()))
+                .andExpect(jsonPath("$.superpower").value(DEFAULT_SUPERPOWER));
+        } finally {
+            superHeroRepository.deleteById(superHero.getId());
+        }
+    }
+
+    @Test
+    void getAllSuperHeroesIsCachedUntilNextWrite() throws Exception {
+        // The cache is invalidated when a write is committed, so the data must be committed
+        superHero.setSuperpower("Cached");
+        superHeroRepository.saveAndFlush(superHero);
+        List<Long> ids = new ArrayList<>(List.of(superHero.getId()));
+        try {
+            String filter = "?superpower.equals=Cached&sort=id,asc";
+            double hitsBefore = cacheRequests("page", "hit");
+
+            restSuperHeroMockMvc.perform(get(ENTITY_API_URL + filter)).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)));
+            restSuperHeroMockMvc.perform(get(ENTITY_API_URL + filter)).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)));
+            restSuperHeroMockMvc
+                .perform(get(ENTITY_API_URL + "/count" + filter))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+            assertThat(cacheRequests("page", "hit")).isEqualTo(hitsBefore + 1);
+
+            // Creating a matching superHero through the API makes the cached results obsolete
+            SuperHeroDTO superHeroDTO = superHeroMapper.toDto(createEntity(em).superpower("Cached"));
+            MvcResult result = restSuperHeroMockMvc
+                .perform(
+                    post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(superHeroDTO))
+                )
+                .andExpect(status().isCreated())
+                .andReturn();
+            ids.add(new ObjectMapper().readValue(result.getResponse().getContentAsByteArray(), SuperHeroDTO.class).getId());
+
+            restSuperHeroMockMvc.perform(get(ENTITY_API_URL + filter)).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)));
+            restSuperHeroMockMvc
+                .perform(get(ENTITY_API_URL + "/count" + filter))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+        } finally {
+            superHeroRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    private double cacheRequests(String query, String result) {
+        return meterRegistry
+            .find(SuperHeroQueryCache.METER_NAME)
+            .tag(SuperHeroQueryCache.METER_QUERY_DIMENSION, query)
+            .tag(SuperHeroQueryCache.METER_RESULT_DIMENSION, result)
+            .counters()
+            .stream()
+            .mapToDouble(Counter::count)
+            .sum();
+    }
+
+    @Test
+    @Transactional
+    void exportSuperHeroesWithUnsupportedFormat() throws Exception {
+        restSuperHeroMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateSuperHeroesByCriteria() throws Exception {
+        // Initialize the database
+        SuperHero matching = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero other = superHeroRepository.saveAndFlush(createEntity(em).superpower(UPDATED_SUPERPOWER));
+        // Populate the cache with the value about to change
+        restSuperHeroMockMvc.perform(get(ENTITY_API_URL_ID, matching.getId())).andExpect(jsonPath("$.age").value(DEFAULT_AGE));
+
+        SuperHeroDTO patch = new SuperHeroDTO();
+        patch.setAge(UPDATED_AGE);
+        restSuperHeroMockMvc
+            .perform(
+                patch(ENTITY_API_URL + "?superpower.equals=" + DEFAULT_SUPERPOWER + "&id.greaterThanOrEqual=" + matching.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(patch))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().string("1"));
+
+        // Validate the SuperHeroes in the database and in the cache
+        assertThat(superHeroRepository.findById(matching.getId())).get().extracting(SuperHero::getAge).isEqualTo(UPDATED_AGE);
+        assertThat(superHeroRepository.findById(matching.getId())).get().extracting(SuperHero::getName).isEqualTo(DEFAULT_NAME);
+        assertThat(superHeroRepository.findById(other.getId())).get().extracting(SuperHero::getAge).isEqualTo(DEFAULT_AGE);
+        restSuperHeroMockMvc.perform(get(ENTITY_API_URL_ID, matching.getId())).andExpect(jsonPath("$.age").value(UPDATED_AGE));
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateSuperHeroesWithoutCriteria() throws Exception {
+        SuperHeroDTO patch = new SuperHeroDTO();
+        patch.setAge(UPDATED_AGE);
+
+        // Every superHero would be updated, so this API call must fail
+        restSuperHeroMockMvc
+            .perform(patch(ENTITY_API_URL).contentType("application/merge-patch+json").content(TestUtil.convertObjectToJsonBytes(patch)))
+            .andExpect(status().isBadRequest());
+        restSuperHeroMockMvc
+            .perform(
+                patch(ENTITY_API_URL + "?id.equals=1")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new SuperHeroDTO()))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void deleteSuperHeroesByCriteria() throws Exception {
+        // Initialize the database
+        SuperHero matching = superHeroRepository.saveAndFlush(createEntity(em));
+        SuperHero other = superHeroRepository.saveAndFlush(createEntity(em).superpower(UPDATED_SUPERPOWER));
+        // Populate the cache with the superHero about to be deleted
+        restSuperHeroMockMvc.perform(get(ENTITY_API_URL_ID, matching.getId())).andExpect(status().isOk());
+
+        restSuperHeroMockMvc
+            .perform(delete(ENTITY_API_URL + "?superpower.equals=" + DEFAULT_SUPERPOWER + "&id.greaterThanOrEqual=" + matching.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string("1"));
+
+        // Validate the database and the cache
+        assertThat(superHeroRepository.existsById(matching.getId())).isFalse();
+        assertThat(superHeroRepository.existsById(other.getId())).isTrue();
+        restSuperHeroMockMvc.perform(get(ENTITY_API_URL_ID, matching.getId())).andExpect(status().isNotFound());
+
+        // Every superHero would be deleted, so this API call must fail
+        restSuperHeroMockMvc.perform(delete(ENTITY_API_URL + "?distinct=true")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingSuperHero() throws Exception {
@@ -468,7 +1000,8 @@ class SuperHeroResourceIT {
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(superHeroDTO))
             )
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(1));
 
         // Validate the SuperHero in the database
         List<SuperHero> superHeroList = superHeroRepository.findAll();
@@ -479,6 +1012,39 @@ class SuperHeroResourceIT {
         assertThat(testSuperHero.getSuperpower()).isEqualTo(UPDATED_SUPERPOWER);
     }
 
+    @Test
+    @Transactional
+    void putExistingSuperHeroWithIfMatch() throws Exception {
+        // Initialize the database
+        superHeroRepository.saveAndFlush(superHero);
+        long version = superHero.getVersion();
+        String eTag = "\"" + version + "\"";
+
+        SuperHeroDTO superHeroDTO = superHeroMapper.toDto(createUpdatedEntity(em).id(superHero.getId()));
+        restSuperHeroMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, superHeroDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(superHeroDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""))
+            .andExpect(jsonPath("$.version").value(version + 1));
+
+        // The superHero is not at the version of the ETag anymore
+        superHeroDTO.setName(DEFAULT_NAME);
+        restSuperHeroMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, superHeroDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, eTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(superHeroDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+        assertThat(superHeroRepository.findById(superHero.getId())).get().extracting(SuperHero::getName).isEqualTo(UPDATED_NAME);
+    }
+
     @Test
     @Transactional
     void putNonExistingSuperHero() throws Exception {
@@ -488,14 +1054,14 @@ class SuperHeroResourceIT {
         // Create the SuperHero
         SuperHeroDTO superHeroDTO = superHeroMapper.toDto(superHero);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // No row is updated, so the superHero is not found
         restSuperHeroMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, superHeroDTO.getId())
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(superHeroDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the SuperHero in the database
         List<SuperHero> superHeroList = superHeroRepository.findAll();
@@ -564,7 +1130,8 @@ class SuperHeroResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(partialUpdatedSuperHero))
             )
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(1));
 
         // Validate the SuperHero in the database
         List<SuperHero> superHeroList = superHeroRepository.findAll();
@@ -575,6 +1142,42 @@ class SuperHeroResourceIT {
         assertThat(testSuperHero.getSuperpower()).isEqualTo(DEFAULT_SUPERPOWER);
     }
 
+    @Test
+    @Transactional
+    void partialUpdateSuperHeroWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        superHeroRepository.saveAndFlush(superHero);
+        long version = superHero.getVersion();
+
+        SuperHeroDTO partialUpdatedSuperHero = new SuperHeroDTO();
+        partialUpdatedSuperHero.setId(superHero.getId());
+        partialUpdatedSuperHero.setName(UPDATED_NAME);
+
+        for (String eTag : List.of("\"" + (version + 1) + "\"", "W/\"" + version + "\"")) {
+            restSuperHeroMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, superHero.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType("application/merge-patch+json")
+                        .content(TestUtil.convertObjectToJsonBytes(partialUpdatedSuperHero))
+                )
+                .andExpect(status().isPreconditionFailed());
+        }
+
+        // Validate the SuperHero in the database
+        assertThat(superHeroRepository.findById(superHero.getId())).get().extracting(SuperHero::getName).isEqualTo(DEFAULT_NAME);
+
+        restSuperHeroMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, superHero.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedSuperHero))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""));
+    }
+
     @Test
     @Transactional
     void fullUpdateSuperHeroWithPatch() throws Exception {
@@ -615,14 +1218,14 @@ class SuperHeroResourceIT {
         // Create the SuperHero
         SuperHeroDTO superHeroDTO = superHeroMapper.toDto(superHero);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // No row is updated, so the superHero is not found
         restSuperHeroMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, superHeroDTO.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(superHeroDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the SuperHero in the database
         List<SuperHero> superHeroList = superHeroRepository.findAll();
@@ -661,12 +1264,12 @@ class SuperHeroResourceIT {
         // Create the SuperHero
         SuperHeroDTO superHeroDTO = superHeroMapper.toDto(superHero);
 
-        // If url ID doesn't match entity ID, it will throw BadRequestAlertException
+        // Without an ID in the url, this is a bulk update which requires criteria and no ID in the body
         restSuperHeroMockMvc
             .perform(
                 patch(ENTITY_API_URL).contentType("application/merge-patch+json").content(TestUtil.convertObjectToJsonBytes(superHeroDTO))
             )
-            .andExpect(status().isMethodNotAllowed());
+            .andExpect(status().isBadRequest());
 
         // Validate the SuperHero in the database
         List<SuperHero> superHeroList = superHeroRepository.findAll();
@@ -1,5 +1,6 @@
 package com.test.hero.web.rest;
 
+import static com.test.hero.web.rest.SqlStatementMatchers.sqlStatements;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -249,6 +250,7 @@ class UserResourceIT {
         restUserMockMvc
             .perform(get("/api/admin/users?sort=id,desc").accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
+            .andExpect(sqlStatements(1))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)))
             .andExpect(jsonPath("$.[*].firstName").value(hasItem(DEFAULT_FIRSTNAME)))
@@ -270,6 +272,7 @@ class UserResourceIT {
         restUserMockMvc
             .perform(get("/api/admin/users/{login}", user.getLogin()))
             .andExpect(status().isOk())
+            .andExpect(sqlStatements(1))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.login").value(user.getLogin()))
             .andExpect(jsonPath("$.firstName").value(DEFAULT_FIRSTNAME))